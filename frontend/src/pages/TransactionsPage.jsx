@@ -15,6 +15,11 @@ import { formatCurrency } from '../utils/dateUtils';
 import api from '../services/api';
 import { format, startOfMonth, endOfMonth } from 'date-fns';
 
+const IMPORT_POLL_INTERVAL_MS = 1500;
+// Past this, the job keeps running on the server but the page stops waiting for it
+const IMPORT_WAIT_LIMIT_MS = 15 * 60 * 1000;
+const IMPORT_FINAL_STATUSES = ['COMPLETED', 'FAILED', 'EXPIRED'];
+
 function TransactionsPage() {
     const { items: transactions, loading, error, addItem, updateItem, deleteMultipleItems, fetchItems, pagination } = useCrud('/transactions');
     const { items: categories, fetchItems: fetchCategories } = useCrud('/categories');
@@ -162,28 +167,67 @@ function TransactionsPage() {
         }
     };
 
+    // Resolves with the finished job, or null once the wait limit is reached; HTTP errors reject
+    const waitForImportJob = async (jobId) => {
+        const deadline = Date.now() + IMPORT_WAIT_LIMIT_MS;
+        while (Date.now() < deadline) {
+            await new Promise(resolve => setTimeout(resolve, IMPORT_POLL_INTERVAL_MS));
+            const { data } = await api.get(`/transactions/import/jobs/${jobId}`);
+            if (IMPORT_FINAL_STATUSES.includes(data.status)) {
+                return data;
+            }
+        }
+        return null;
+    };
+
     const handleImport = async (e) => {
         const file = e.target.files[0];
         if (!file) return;
 
         const formData = new FormData();
         formData.append('file', file);
+        e.target.value = '';
 
+        let job;
         try {
-            await api.post('/transactions/import', formData, {
+            ({ data: job } = await api.post('/transactions/import', formData, {
                 headers: {
                     'Content-Type': 'multipart/form-data'
                 }
-            });
-            addToast({ type: 'success', title: 'Importação', message: 'Transações importadas com sucesso!' });
-            handleApplyFilters();
-            fetchCategories(); // Refresh in case new categories were created
-            fetchAccounts(); // Refresh in case new accounts were created
+            }));
         } catch (error) {
             console.error(error);
             addToast({ type: 'error', title: 'Erro', message: 'Falha ao importar transações.' });
+            return;
         }
-        e.target.value = '';
+        addToast({ type: 'info', title: 'Importação', message: 'Importação iniciada, processando planilha...' });
+
+        let result;
+        try {
+            result = await waitForImportJob(job.id);
+        } catch (error) {
+            console.error(error);
+            addToast({ type: 'error', title: 'Erro', message: 'Não foi possível acompanhar a importação. Confira as transações mais tarde.' });
+            return;
+        }
+        if (!result) {
+            addToast({ type: 'warning', title: 'Importação', message: 'A importação ainda está em andamento. Confira as transações mais tarde.' });
+            return;
+        }
+
+        if (result.status === 'FAILED') {
+            addToast({ type: 'error', title: 'Erro', message: `Falha ao importar transações: ${result.errorMessage}` });
+        } else if (result.status === 'EXPIRED') {
+            addToast({ type: 'error', title: 'Erro', message: 'A importação falhou e expirou. Envie a planilha novamente.' });
+        } else {
+            const skipped = result.skippedRows > 0 ? ` ${result.skippedRows} já existentes foram ignoradas.` : '';
+            const rejected = result.rejectedRows > 0 ? ` ${result.rejectedRows} linhas inválidas foram rejeitadas.` : '';
+            addToast({ type: rejected ? 'warning' : 'success', title: 'Importação', message: `Transações importadas com sucesso!${skipped}${rejected}` });
+        }
+        // Failed jobs keep the chunks they committed, so refresh in every case
+        handleApplyFilters();
+        fetchCategories(); // Refresh in case new categories were created
+        fetchAccounts(); // Refresh in case new accounts were created
     };
 
     const handleFilterChange = (field, value) => {
@@ -0,0 +1,50 @@
+package br.com.fabioprada.financial.security;
+
+import br.com.fabioprada.financial.config.JwtProperties;
+import br.com.fabioprada.financial.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification per request: the full signature and expiration check,
+ * and {@code verify} as called by the request filter, which only parses a
+ * token the first time it is seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("BenchmarkSecretThatIsLongEnoughToBeUsedWithHmacSha256");
+        properties.setExpiration(3600L);
+        jwtTokenProvider = new JwtTokenProvider(properties);
+        jwtTokenProvider.init();
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("benchmark@example.com");
+        user.setName("Benchmark");
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseAndVerify() {
+        return jwtTokenProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtTokenProvider.verify(token);
+    }
+}
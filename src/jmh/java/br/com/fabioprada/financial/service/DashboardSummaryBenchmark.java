@@ -0,0 +1,64 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.dto.MonthSummaryDTO;
+import br.com.fabioprada.financial.dto.MonthlyPlannedTotal;
+import br.com.fabioprada.financial.dto.MonthlyTypeTotal;
+import br.com.fabioprada.financial.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folding of the grouped monthly totals into dashboard summaries, as done by
+ * {@link DashboardService} after its two aggregate queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardSummaryBenchmark {
+
+    // Window size; the dashboard shows 12 months and caps requests at 120
+    @Param({ "12", "120" })
+    private int months;
+
+    private YearMonth from;
+    private YearMonth to;
+    private List<MonthlyTypeTotal> transactionTotals;
+    private List<MonthlyPlannedTotal> plannedTotals;
+
+    @Setup
+    public void setUp() {
+        to = YearMonth.of(2025, 12);
+        from = to.minusMonths(months - 1L);
+
+        transactionTotals = new ArrayList<>();
+        plannedTotals = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            int key = month.getYear() * 100 + month.getMonthValue();
+            for (TransactionType type : TransactionType.values()) {
+                transactionTotals.add(new TypeTotal(key, type, BigDecimal.valueOf(key % 997, 2)));
+            }
+            plannedTotals.add(new PlannedTotal(key, BigDecimal.valueOf(key % 991, 2)));
+        }
+    }
+
+    @Benchmark
+    public Map<YearMonth, MonthSummaryDTO> summarize() {
+        return DashboardService.summarize(from, to, transactionTotals, plannedTotals);
+    }
+
+    private record TypeTotal(Integer getYearMonth, TransactionType getTransactionType, BigDecimal getTotal)
+            implements MonthlyTypeTotal {
+    }
+
+    private record PlannedTotal(Integer getYearMonth, BigDecimal getTotal) implements MonthlyPlannedTotal {
+    }
+}
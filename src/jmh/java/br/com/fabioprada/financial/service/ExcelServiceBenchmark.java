@@ -0,0 +1,93 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * XLSX export and import throughput. The import reads a file produced by the
+ * export in the trial setup, so both sides use the same layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class ExcelServiceBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int rows;
+
+    private final ExcelService excelService = new ExcelService();
+    private final Category[] categories = new Category[20];
+    private final Account[] accounts = new Account[5];
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category();
+            categories[i].setName("Categoria " + i);
+        }
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new Account();
+            accounts[i].setName("Conta " + i);
+        }
+
+        file = Files.createTempFile("benchmark-", ".xlsx");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            excelService.exportToExcel(transactions().map(TransactionDTO::from), List.of(), out, transaction -> {
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void export(Blackhole blackhole) {
+        excelService.exportToExcel(transactions().map(TransactionDTO::from), List.of(), OutputStream.nullOutputStream(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void importRows(Blackhole blackhole) {
+        excelService.importData(file, blackhole::consume, blackhole::consume);
+    }
+
+    // Generated lazily, so the export itself is the only thing holding rows
+    private Stream<Transaction> transactions() {
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        return IntStream.range(0, rows).mapToObj(i -> {
+            Transaction transaction = new Transaction();
+            transaction.setName("Transação " + i);
+            transaction.setCreationDate(start.plusDays(i % 1500));
+            transaction.setAmount(BigDecimal.valueOf(1000 + i % 50_000, 2));
+            transaction.setTransactionType(i % 4 == 0 ? TransactionType.ENTRADA : TransactionType.SAIDA);
+            transaction.setCategory(categories[i % categories.length]);
+            if (transaction.getTransactionType() == TransactionType.ENTRADA) {
+                transaction.setInAccount(accounts[i % accounts.length]);
+            } else {
+                transaction.setOutAccount(accounts[i % accounts.length]);
+            }
+            return transaction;
+        });
+    }
+}
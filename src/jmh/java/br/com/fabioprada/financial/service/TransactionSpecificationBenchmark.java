@@ -0,0 +1,70 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.model.*;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criteria query building for the transaction listing filters. Hibernate is
+ * bootstrapped from the entity mappings alone, without a database connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSpecificationBenchmark {
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder cb;
+
+    @Setup
+    public void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(User.class, Account.class, Category.class, Transaction.class,
+                        InstallmentPlan.class, MonthlyPlanning.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        cb = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Transaction> userOnly() {
+        return build(TransactionService.createSpecification(1L, null, null, null, null, null));
+    }
+
+    @Benchmark
+    public CriteriaQuery<Transaction> allFilters() {
+        return build(TransactionService.createSpecification(1L, "Mercado", LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 12, 31), 42L, "SAIDA"));
+    }
+
+    private CriteriaQuery<Transaction> build(Specification<Transaction> spec) {
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        return query.where(spec.toPredicate(root, query, cb));
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.fabioprada.financial.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint, in nanoseconds, shared by all virtual users.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos, boolean ok) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    synchronized long[] sorted() {
+        long[] copy = Arrays.copyOf(latencies, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    synchronized long errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,273 @@
+package br.com.fabioprada.financial.load;
+
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.service.ExcelService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Replays a mix of login, transaction search, dashboard, planning, import and
+ * export requests against a running backend loaded by the {@code seed}
+ * profile, and reports throughput and p50/p99 latency per endpoint.
+ *
+ * <pre>
+ * ./mvnw -P load-test test-compile exec:java@load -Dload.concurrency=32 -Dload.duration=120
+ * </pre>
+ *
+ * Settings are read from {@code load.*} system properties; see {@link #setting}.
+ */
+public class LoadDriver {
+
+    private static final String BASE_URL = setting("load.base-url", "http://localhost:8080");
+    private static final int USERS = Integer.parseInt(setting("load.users", "100"));
+    private static final String PASSWORD = setting("load.password", "seed1234");
+    private static final int CONCURRENCY = Integer.parseInt(setting("load.concurrency", "16"));
+    private static final int WARMUP_SECONDS = Integer.parseInt(setting("load.warmup", "10"));
+    private static final int DURATION_SECONDS = Integer.parseInt(setting("load.duration", "60"));
+    // Requests a virtual user sends before logging in again
+    private static final int SESSION_REQUESTS = Integer.parseInt(setting("load.session-requests", "50"));
+    private static final String REPORT = setting("load.report", "target/load-report.json");
+
+    private static final String[] SEARCH_TERMS = { "mercado", "aluguel", "uber", "farm", "sal", "curso" };
+
+    // Weighted request mix, in percent; logins come from session renewal
+    private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+    static {
+        MIX.put("search", 45);
+        MIX.put("dashboard", 25);
+        MIX.put("planning", 20);
+        MIX.put("export", 5);
+        MIX.put("import", 5);
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final byte[] importFile;
+
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    LoadDriver(byte[] importFile) {
+        this.importFile = importFile;
+        recorders.put("login", new LatencyRecorder());
+        MIX.keySet().forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadDriver driver = new LoadDriver(importFile());
+        driver.run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Load test against %s: %d virtual users, %ds warmup, %ds measured%n", BASE_URL,
+                CONCURRENCY, WARMUP_SECONDS, DURATION_SECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        IntStream.range(0, CONCURRENCY).forEach(worker -> executor.submit(this::virtualUser));
+
+        TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+        recording = true;
+        long started = System.nanoTime();
+        TimeUnit.SECONDS.sleep(DURATION_SECONDS);
+        recording = false;
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        running = false;
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        report(elapsedSeconds);
+    }
+
+    private void virtualUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            String email = String.format("seed%05d@example.com", random.nextInt(USERS));
+            String token = login(email);
+            if (token == null) {
+                continue;
+            }
+            for (int i = 0; i < SESSION_REQUESTS && running; i++) {
+                String endpoint = pick(random.nextInt(100));
+                timed(endpoint, () -> send(endpoint, token, random));
+            }
+        }
+    }
+
+    private String login(String email) {
+        String[] token = new String[1];
+        timed("login", () -> {
+            String body = objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                JsonNode json = objectMapper.readTree(response.body());
+                token[0] = json.path("token").asText(null);
+            }
+            return response.statusCode();
+        });
+        return token[0];
+    }
+
+    private int send(String endpoint, String token, ThreadLocalRandom random) throws IOException, InterruptedException {
+        YearMonth month = YearMonth.now().minusMonths(random.nextInt(12));
+        HttpRequest.Builder request = switch (endpoint) {
+            case "search" -> get("/api/transactions?page=" + random.nextInt(5) + "&size=20"
+                    + (random.nextBoolean() ? "&name=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]
+                            : "&startDate=" + month.atDay(1) + "&endDate=" + month.atEndOfMonth()));
+            case "dashboard" -> get("/api/dashboard/summary");
+            case "planning" -> get("/api/monthly-planning?page=0&size=20&month=" + month.getMonthValue()
+                    + "&year=" + month.getYear());
+            case "export" -> get("/api/transactions/export?startDate=" + month.atDay(1) + "&endDate="
+                    + month.atEndOfMonth());
+            case "import" -> multipart("/api/transactions/import", importFile);
+            default -> throw new IllegalArgumentException(endpoint);
+        };
+        HttpResponse<Void> response = client.send(request.header("Authorization", "Bearer " + token).build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.statusCode();
+    }
+
+    private static HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(BASE_URL + path)).timeout(Duration.ofMinutes(2)).GET();
+    }
+
+    private static HttpRequest.Builder multipart(String path, byte[] file) {
+        String boundary = "----load" + System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"load.xlsx\"\r\n"
+                + "Content-Type: " + ExcelService.TYPE + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(file);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(URI.create(BASE_URL + path)).timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+    }
+
+    private static String pick(int roll) {
+        int cumulative = 0;
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            cumulative += entry.getValue();
+            if (roll < cumulative) {
+                return entry.getKey();
+            }
+        }
+        return "search";
+    }
+
+    private void timed(String endpoint, Request request) {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            int status = request.send();
+            ok = status >= 200 && status < 300;
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (recording) {
+            recorders.get(endpoint).record(System.nanoTime() - start, ok);
+        }
+    }
+
+    private void report(double elapsedSeconds) throws IOException {
+        System.out.printf("%n%-10s %9s %7s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms",
+                "p99 ms");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            long[] latencies = recorder.sorted();
+            double throughput = latencies.length / elapsedSeconds;
+            double p50 = percentile(latencies, 0.50);
+            double p99 = percentile(latencies, 0.99);
+            System.out.printf("%-10s %9d %7d %9.1f %9.1f %9.1f%n", entry.getKey(), latencies.length,
+                    recorder.errors(), throughput, p50, p99);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", entry.getKey());
+            row.put("requests", latencies.length);
+            row.put("errors", recorder.errors());
+            row.put("throughput", throughput);
+            row.put("p50Ms", p50);
+            row.put("p99Ms", p99);
+            rows.add(row);
+        }
+
+        Path report = Path.of(REPORT);
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), Map.of(
+                "baseUrl", BASE_URL, "concurrency", CONCURRENCY, "durationSeconds", elapsedSeconds,
+                "endpoints", rows));
+        System.out.println("\nReport written to " + report.toAbsolutePath());
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    // A small spreadsheet in the export layout; repeated imports exercise deduplication
+    private static byte[] importFile() {
+        Category category = new Category();
+        category.setName("Mercado");
+        Account account = new Account();
+        account.setName("Conta Corrente");
+        List<Transaction> rows = IntStream.range(0, 50).mapToObj(i -> {
+            Transaction transaction = new Transaction();
+            transaction.setName("Importação " + i);
+            transaction.setCreationDate(LocalDate.now().minusDays(i));
+            transaction.setAmount(BigDecimal.valueOf(1_000 + i * 37L, 2));
+            transaction.setTransactionType(TransactionType.SAIDA);
+            transaction.setCategory(category);
+            transaction.setOutAccount(account);
+            return transaction;
+        }).toList();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExcelService().exportToExcel(rows.stream().map(TransactionDTO::from), List.of(), out, transaction -> {
+        });
+        return out.toByteArray();
+    }
+
+    static String setting(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        int send() throws Exception;
+    }
+}
@@ -2,13 +2,24 @@ package br.com.fabioprada.financial;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import br.com.fabioprada.financial.config.JwtProperties;
 import br.com.fabioprada.financial.config.CorsProperties;
+import br.com.fabioprada.financial.config.MaintenanceProperties;
+import br.com.fabioprada.financial.config.ImportJobProperties;
+import br.com.fabioprada.financial.config.SeedProperties;
+import br.com.fabioprada.financial.config.QueryCountProperties;
+import br.com.fabioprada.financial.config.SlowQueryProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({ JwtProperties.class, CorsProperties.class })
+@EnableCaching
+@EnableScheduling
+@EnableConfigurationProperties({ JwtProperties.class, CorsProperties.class, MaintenanceProperties.class,
+		ImportJobProperties.class, SeedProperties.class, QueryCountProperties.class,
+		SlowQueryProperties.class })
 public class FinancialApplication {
 
 	public static void main(String[] args) {
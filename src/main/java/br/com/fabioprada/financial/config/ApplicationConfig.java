@@ -2,6 +2,7 @@ package br.com.fabioprada.financial.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -12,4 +13,13 @@ public class ApplicationConfig {
     PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+
+    @Bean
+    ThreadPoolTaskExecutor importExecutor(ImportJobProperties importJobProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importJobProperties.getThreads());
+        executor.setMaxPoolSize(importJobProperties.getThreads());
+        executor.setThreadNamePrefix("import-");
+        return executor;
+    }
+}
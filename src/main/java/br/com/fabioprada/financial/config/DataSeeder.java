@@ -0,0 +1,232 @@
+package br.com.fabioprada.financial.config;
+
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.InstallmentPlan;
+import br.com.fabioprada.financial.model.MonthlyPlanning;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.InstallmentPlanRepository;
+import br.com.fabioprada.financial.repository.MonthlyPlanningRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.repository.UserRepository;
+import br.com.fabioprada.financial.service.AccountBalanceService;
+import br.com.fabioprada.financial.service.MonthlyAggregateService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Loads synthetic users with accounts, categories, plannings and
+ * transactions (including installment purchases) for local volume tests.
+ * Enabled with {@code --spring.profiles.active=seed}; users are named
+ * {@code seed00000@example.com} onwards and share {@code seed.password}, and
+ * users that already exist are skipped. Rows are written in JDBC batches,
+ * then balances and monthly aggregates are rebuilt once at the end.
+ */
+@Component
+@Profile("seed")
+@Order(1)
+public class DataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    private static final String[] CATEGORY_NAMES = { "Mercado", "Moradia", "Transporte", "Saúde", "Lazer",
+            "Educação", "Restaurantes", "Assinaturas" };
+    private static final String[] ACCOUNT_NAMES = { "Conta Corrente", "Poupança", "Cartão de Crédito" };
+    private static final String[] MERCHANTS = { "Supermercado", "Aluguel", "Combustível", "Farmácia", "Cinema",
+            "Curso", "Padaria", "Streaming", "Uber", "Academia", "Livraria", "Pet Shop" };
+
+    // Rows persisted before the persistence context is flushed and cleared
+    private static final int FLUSH_EVERY = 1000;
+
+    private final SeedProperties seedProperties;
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionRepository transactionRepository;
+    private final InstallmentPlanRepository installmentPlanRepository;
+    private final MonthlyPlanningRepository monthlyPlanningRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public DataSeeder(SeedProperties seedProperties, UserRepository userRepository,
+            AccountRepository accountRepository, CategoryRepository categoryRepository,
+            TransactionRepository transactionRepository, InstallmentPlanRepository installmentPlanRepository,
+            MonthlyPlanningRepository monthlyPlanningRepository, AccountBalanceService accountBalanceService,
+            MonthlyAggregateService monthlyAggregateService, PasswordEncoder passwordEncoder,
+            TransactionTemplate transactionTemplate, EntityManager entityManager) {
+        this.seedProperties = seedProperties;
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.categoryRepository = categoryRepository;
+        this.transactionRepository = transactionRepository;
+        this.installmentPlanRepository = installmentPlanRepository;
+        this.monthlyPlanningRepository = monthlyPlanningRepository;
+        this.accountBalanceService = accountBalanceService;
+        this.monthlyAggregateService = monthlyAggregateService;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Hashing is deliberately slow, so every seeded user shares one hash
+        String passwordHash = passwordEncoder.encode(seedProperties.getPassword());
+        Random random = new Random(seedProperties.getRandomSeed());
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        int created = 0;
+
+        for (int i = 0; i < seedProperties.getUsers(); i++) {
+            String email = String.format("seed%05d@example.com", i);
+            if (userRepository.findByEmail(email).isPresent()) {
+                continue;
+            }
+            Long seeded = transactionTemplate.execute(status -> seedUser(email, passwordHash, random));
+            rows += seeded != null ? seeded : 0;
+            created++;
+            if (created % 100 == 0) {
+                log.info("Seeded {} users, {} transactions", created, rows);
+            }
+        }
+
+        if (created > 0) {
+            accountBalanceService.reconcile();
+            monthlyAggregateService.rebuild();
+        }
+        log.info("Seeding finished: {} users, {} transactions in {} s", created, rows,
+                (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private long seedUser(String email, String passwordHash, Random random) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Seed " + email.substring(4, 9));
+        user.setPassword(passwordHash);
+        user = userRepository.save(user);
+
+        List<Category> categories = new ArrayList<>();
+        for (String name : CATEGORY_NAMES) {
+            Category category = new Category();
+            category.setName(name);
+            category.setUser(user);
+            categories.add(category);
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        List<Account> accounts = new ArrayList<>();
+        for (String name : ACCOUNT_NAMES) {
+            Account account = new Account();
+            account.setName(name);
+            account.setUser(user);
+            account.setInitialBalance(BigDecimal.valueOf(random.nextInt(500_000), 2));
+            account.setCurrentBalance(account.getInitialBalance());
+            accounts.add(account);
+        }
+        accounts = accountRepository.saveAll(accounts);
+
+        YearMonth lastMonth = YearMonth.now();
+        YearMonth firstMonth = lastMonth.minusMonths(seedProperties.getMonths() - 1L);
+
+        List<MonthlyPlanning> plannings = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            for (Category category : categories) {
+                MonthlyPlanning planning = new MonthlyPlanning();
+                planning.setUser(user);
+                planning.setCategory(category);
+                planning.setMonth(month.getMonthValue());
+                planning.setYear(month.getYear());
+                planning.setEstimatedAmount(BigDecimal.valueOf(20_000 + random.nextInt(200_000), 2));
+                plannings.add(planning);
+            }
+        }
+        monthlyPlanningRepository.saveAll(plannings);
+
+        LocalDate firstDay = firstMonth.atDay(1);
+        int days = (int) (lastMonth.atEndOfMonth().toEpochDay() - firstDay.toEpochDay()) + 1;
+        List<Transaction> batch = new ArrayList<>(FLUSH_EVERY);
+        long rows = 0;
+        while (rows < seedProperties.getTransactionsPerUser()) {
+            Category category = categories.get(random.nextInt(categories.size()));
+            LocalDate date = firstDay.plusDays(random.nextInt(days));
+            String name = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            int kind = random.nextInt(100);
+
+            if (kind < 5) {
+                // Installment purchase on the credit card, stored as its plan alone
+                int count = 2 + random.nextInt(11);
+                InstallmentPlan plan = new InstallmentPlan();
+                plan.setUser(user);
+                plan.setName(name);
+                plan.setTotalAmount(BigDecimal.valueOf(10_000 + random.nextInt(500_000), 2));
+                plan.setInstallmentCount(count);
+                plan.setTotalInstallments(count);
+                plan.setStartDate(date);
+                plan.setTransactionType(TransactionType.CARTAO);
+                plan.setCategory(category);
+                plan.setOutAccount(accounts.get(2));
+                installmentPlanRepository.save(plan);
+                rows += count;
+            } else if (kind < 20) {
+                batch.add(transaction(user, "Salário", BigDecimal.valueOf(300_000 + random.nextInt(700_000), 2),
+                        date, TransactionType.ENTRADA, null, null, accounts.get(0)));
+                rows++;
+            } else if (kind < 25) {
+                batch.add(transaction(user, "Transferência", BigDecimal.valueOf(10_000 + random.nextInt(100_000), 2),
+                        date, TransactionType.MOVIMENTACAO, null, accounts.get(0), accounts.get(1)));
+                rows++;
+            } else {
+                batch.add(transaction(user, name, BigDecimal.valueOf(500 + random.nextInt(50_000), 2),
+                        date, TransactionType.SAIDA, category, accounts.get(0), null));
+                rows++;
+            }
+
+            if (batch.size() >= FLUSH_EVERY) {
+                transactionRepository.saveAll(batch);
+                batch.clear();
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        transactionRepository.saveAll(batch);
+        entityManager.flush();
+        entityManager.clear();
+        return rows;
+    }
+
+    private static Transaction transaction(User user, String name, BigDecimal amount, LocalDate date,
+            TransactionType type, Category category, Account outAccount, Account inAccount) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setName(name);
+        transaction.setAmount(amount);
+        transaction.setCreationDate(date);
+        transaction.setTransactionType(type);
+        transaction.setCategory(category);
+        transaction.setOutAccount(outAccount);
+        transaction.setInAccount(inAccount);
+        return transaction;
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.fabioprada.financial.config;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past rows created while these tables still used
+ * identity columns. A sequence is only advanced when it is behind the
+ * table's highest id, so this is a no-op on an up-to-date database.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "transacoes", "transacoes_seq",
+            "contas", "contas_seq",
+            "categorias", "categorias_seq",
+            "monthly_planning", "monthly_planning_seq");
+
+    private final EntityManager entityManager;
+
+    public IdSequenceAligner(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @return how many sequences were advanced
+     */
+    @Transactional
+    public int align() {
+        int aligned = 0;
+        for (Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+            String table = entry.getKey();
+            String sequence = entry.getValue();
+            // Pooled ids are handed out below the sequence value, so leave a full block of headroom
+            aligned += entityManager.createNativeQuery(
+                    "SELECT setval('" + sequence + "', m.max_id + " + ALLOCATION_SIZE + ")"
+                            + " FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") m"
+                            + " WHERE m.max_id >= (SELECT last_value FROM " + sequence + ")")
+                    .getResultList().size();
+        }
+        return aligned;
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "import-jobs")
+public class ImportJobProperties {
+    private int chunkSize = 500;
+    private int threads = 2;
+    // Must survive restarts, or failed jobs cannot be resumed; deliberately no default
+    private String directory;
+    private Duration retention = Duration.ofDays(7);
+}
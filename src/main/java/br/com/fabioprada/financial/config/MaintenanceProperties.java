@@ -0,0 +1,13 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "maintenance")
+public class MaintenanceProperties {
+    private boolean reconcileBalances;
+    private boolean rebuildAggregates;
+    private boolean linkLegacyInstallments;
+}
@@ -0,0 +1,92 @@
+package br.com.fabioprada.financial.config;
+
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.service.AccountBalanceService;
+import br.com.fabioprada.financial.service.ImportJobService;
+import br.com.fabioprada.financial.service.MonthlyAggregateService;
+import br.com.fabioprada.financial.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup maintenance commands. Id sequences are aligned with existing rows
+ * and balances are always backfilled when some account has never been
+ * computed; a full verify-and-fix pass runs with
+ * {@code --maintenance.reconcile-balances=true}. Monthly aggregates are
+ * backfilled when the table is empty and rebuilt from scratch with
+ * {@code --maintenance.rebuild-aggregates=true}. Transactions missing their
+ * content fingerprint get one. Installments saved before installment plans
+ * existed are converted into plans once, with
+ * {@code --maintenance.link-legacy-installments=true}. Import jobs interrupted by
+ * a shutdown are marked as failed so they can be resumed. Uploads of jobs
+ * that stayed failed past their retention are deleted. All of this runs
+ * before the web server starts, so no request sees unaligned sequences or
+ * balances that are not computed yet.
+ */
+@Component
+public class MaintenanceRunner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceRunner.class);
+
+    private final MaintenanceProperties maintenanceProperties;
+    private final AccountRepository accountRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final IdSequenceAligner idSequenceAligner;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final ImportJobService importJobService;
+    private final TransactionService transactionService;
+
+    public MaintenanceRunner(MaintenanceProperties maintenanceProperties, AccountRepository accountRepository,
+            AccountBalanceService accountBalanceService, IdSequenceAligner idSequenceAligner,
+            MonthlyAggregateService monthlyAggregateService, ImportJobService importJobService,
+            TransactionService transactionService) {
+        this.maintenanceProperties = maintenanceProperties;
+        this.accountRepository = accountRepository;
+        this.accountBalanceService = accountBalanceService;
+        this.idSequenceAligner = idSequenceAligner;
+        this.monthlyAggregateService = monthlyAggregateService;
+        this.importJobService = importJobService;
+        this.transactionService = transactionService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int alignedSequences = idSequenceAligner.align();
+        if (alignedSequences > 0) {
+            log.info("Advanced {} id sequences past existing rows", alignedSequences);
+        }
+
+        if (maintenanceProperties.isReconcileBalances() || accountRepository.existsByCurrentBalanceIsNull()) {
+            long mismatches = accountBalanceService.countMismatches();
+            int corrected = accountBalanceService.reconcile();
+            log.info("Account balance reconciliation: {} mismatched, {} corrected", mismatches, corrected);
+        }
+
+        if (maintenanceProperties.isRebuildAggregates() || monthlyAggregateService.needsBackfill()) {
+            int rows = monthlyAggregateService.rebuild();
+            log.info("Monthly aggregates rebuilt: {} rows", rows);
+        }
+
+        int fingerprinted = transactionService.backfillFingerprints();
+        if (fingerprinted > 0) {
+            log.info("Computed content fingerprints for {} transactions", fingerprinted);
+        }
+
+        if (maintenanceProperties.isLinkLegacyInstallments()) {
+            int linkedPlans = transactionService.linkLegacyInstallments();
+            log.info("Converted legacy installments into {} installment plans", linkedPlans);
+        }
+
+        int interruptedJobs = importJobService.failInterruptedJobs();
+        if (interruptedJobs > 0) {
+            log.info("Marked {} interrupted import jobs as failed", interruptedJobs);
+        }
+
+        int expiredJobs = importJobService.expireFailedJobs();
+        if (expiredJobs > 0) {
+            log.info("Deleted the uploads of {} expired import jobs", expiredJobs);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.fabioprada.financial.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements run while serving each request and warns when the
+ * same statement shape repeats, which usually means a query per row.
+ * {@link QueryCountHeaderAdvice} copies the count to the response header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "query-count", name = "enabled")
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+    static final String RECORDING_ATTRIBUTE = QueryCountFilter.class.getName() + ".recording";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final QueryCountProperties properties;
+
+    public QueryCountFilter(QueryCountProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain) throws ServletException, IOException {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            request.setAttribute(RECORDING_ATTRIBUTE, recording);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                report(request, response, recording);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, QueryCounter.Recording recording) {
+        // Bodies written by message converters already carry the header; this covers the rest
+        if (!response.isCommitted()) {
+            response.setHeader(HEADER, String.valueOf(recording.getStatements()));
+        }
+
+        Map<String, Integer> repeated = recording.repeatedShapes(properties.getRepeatThreshold());
+        if (!repeated.isEmpty()) {
+            log.warn("{} {} ran {} SQL statements, repeated shapes: {}", request.getMethod(),
+                    request.getRequestURI(), recording.getStatements(), repeated);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {} ran {} SQL statements", request.getMethod(), request.getRequestURI(),
+                    recording.getStatements());
+        }
+    }
+}
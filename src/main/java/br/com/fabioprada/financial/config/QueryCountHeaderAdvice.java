@@ -0,0 +1,41 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sets {@link QueryCountFilter#HEADER} just before a response body is written,
+ * while headers can still be changed. Statements run during serialization are
+ * only reflected in the filter's log line.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "query-count", name = "enabled")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType,
+            @NonNull MediaType selectedContentType,
+            @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest()
+                        .getAttribute(QueryCountFilter.RECORDING_ATTRIBUTE) instanceof QueryCounter.Recording recording) {
+            response.getHeaders().set(QueryCountFilter.HEADER, String.valueOf(recording.getStatements()));
+        }
+        return body;
+    }
+}
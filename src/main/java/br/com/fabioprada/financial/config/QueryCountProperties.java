@@ -0,0 +1,12 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "query-count")
+public class QueryCountProperties {
+    private boolean enabled;
+    private int repeatThreshold = 5;
+}
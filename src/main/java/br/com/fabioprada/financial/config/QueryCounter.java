@@ -0,0 +1,110 @@
+package br.com.fabioprada.financial.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered through {@code hibernate.session_factory.statement_inspector};
+ * callers read {@link #current()} before and after a unit of work, or open a
+ * {@link Recording} to also collect the statement shapes it runs.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<List<Recording>> RECORDINGS = ThreadLocal.withInitial(ArrayList::new);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        List<Recording> recordings = RECORDINGS.get();
+        if (!recordings.isEmpty()) {
+            String shape = shape(sql);
+            for (Recording recording : recordings) {
+                recording.add(sql, shape);
+            }
+        }
+        return sql;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Starts collecting the statements run on the current thread until the
+     * returned recording is closed. Recordings may be nested.
+     */
+    public static Recording start() {
+        Recording recording = new Recording();
+        RECORDINGS.get().add(recording);
+        return recording;
+    }
+
+    /**
+     * Statement with literals replaced by {@code ?} and IN lists collapsed, so
+     * the same query issued for different rows has the same shape.
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private long statements;
+        private String lastStatement;
+
+        private Recording() {
+        }
+
+        private void add(String sql, String shape) {
+            statements++;
+            lastStatement = sql;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        /**
+         * SQL of the most recent statement, exactly as Hibernate prepared it.
+         */
+        public String getLastStatement() {
+            return lastStatement;
+        }
+
+        /**
+         * Shapes run at least {@code minimum} times, most repeated first.
+         * Typical sign of an N+1: one query per row of a previous result.
+         */
+        public Map<String, Integer> repeatedShapes(int minimum) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minimum)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            RECORDINGS.get().remove(this);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.fabioprada.financial.config;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Drops indexes that were removed from the entity mappings. Schema updates
+ * only ever add indexes, so without this they would keep slowing down writes.
+ * Runs once the beans are created, before the web server accepts requests.
+ */
+@Component
+public class RetiredIndexes implements SmartInitializingSingleton {
+
+    // Strict prefix of idx_transaction_user_date_id
+    private static final List<String> INDEXES = List.of("idx_transaction_user_date");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public RetiredIndexes(EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String index : INDEXES) {
+                entityManager.createNativeQuery("DROP INDEX IF EXISTS " + index).executeUpdate();
+            }
+        });
+    }
+}
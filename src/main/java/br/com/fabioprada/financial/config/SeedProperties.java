@@ -0,0 +1,15 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "seed")
+public class SeedProperties {
+    private int users = 100;
+    private int transactionsPerUser = 1000;
+    private int months = 24;
+    private String password = "seed1234";
+    private long randomSeed = 42;
+}
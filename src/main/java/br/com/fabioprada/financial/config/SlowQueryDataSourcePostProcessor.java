@@ -0,0 +1,33 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's {@link DataSource} through {@link TimedDataSource}
+ * so statement timings reach the {@link SlowQueryLog}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "slow-queries", name = "enabled", matchIfMissing = true)
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor {
+
+    // Resolved lazily: post-processors are created before ordinary beans
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return TimedDataSource.wrap(dataSource, slowQueryLog.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowqueries}: the slowest statements since startup, or
+ * since the last {@code DELETE} on the endpoint. The statements show what
+ * users query, so the endpoint only exists when the actuator has its own
+ * management port, which is bound to the loopback interface.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@ConditionalOnProperty(prefix = "slow-queries", name = "enabled", matchIfMissing = true)
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<SlowQueryLog.Entry> slowQueries() {
+        return slowQueryLog.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryLog.reset();
+    }
+}
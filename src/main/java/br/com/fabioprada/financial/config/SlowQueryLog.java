@@ -0,0 +1,118 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the N slowest SQL statements seen since startup, one entry per
+ * statement shape. Statements faster than the threshold or than every kept
+ * entry are discarded after a single volatile read. Entries are merged per
+ * shape in a concurrent map, so concurrent runs of one statement never take
+ * two entries; only a statement that overflows the map waits to evict the
+ * fastest entry.
+ */
+@Component
+@ConditionalOnProperty(prefix = "slow-queries", name = "enabled", matchIfMissing = true)
+public class SlowQueryLog {
+
+    public record Entry(String sql, int parameters, double durationMillis, String caller, Instant executedAt) {
+
+        private long durationNanos() {
+            return Math.round(durationMillis * 1_000_000);
+        }
+    }
+
+    private static final String APPLICATION_PACKAGE = "br.com.fabioprada.financial.";
+    private static final String CONFIG_PACKAGE = APPLICATION_PACKAGE + "config.";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int size;
+    private final long thresholdNanos;
+
+    // Duration of the fastest kept entry once the log is full; may lag behind, never ahead
+    private volatile long floorNanos;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this.size = properties.getSize();
+        this.thresholdNanos = properties.getThreshold().toNanos();
+    }
+
+    public void record(String sql, long durationNanos) {
+        if (durationNanos < thresholdNanos || durationNanos <= floorNanos) {
+            return;
+        }
+        String shape = QueryCounter.shape(sql);
+        Entry entry = new Entry(shape, countParameters(sql), durationNanos / 1_000_000.0, caller(), Instant.now());
+
+        // Same statement already kept: only a slower run replaces it
+        entries.merge(shape, entry, (kept, run) -> run.durationNanos() > kept.durationNanos() ? run : kept);
+        if (entries.size() >= size) {
+            trim();
+        }
+    }
+
+    // Drops the fastest entries beyond the size and raises the floor to the fastest one kept
+    private synchronized void trim() {
+        while (entries.size() > size) {
+            entries.values().stream()
+                    .min(Comparator.comparingLong(Entry::durationNanos))
+                    .ifPresent(fastest -> entries.remove(fastest.sql(), fastest));
+        }
+        floorNanos = entries.size() < size ? 0
+                : entries.values().stream().mapToLong(Entry::durationNanos).min().orElse(0);
+    }
+
+    /**
+     * Kept entries, slowest first.
+     */
+    public List<Entry> snapshot() {
+        List<Entry> kept = new ArrayList<>(entries.values());
+        kept.sort(Comparator.comparingDouble(Entry::durationMillis).reversed());
+        return kept;
+    }
+
+    public synchronized void reset() {
+        entries.clear();
+        floorNanos = 0;
+    }
+
+    /**
+     * JDBC placeholders in the statement as sent, ignoring any inside string literals.
+     */
+    static int countParameters(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * First application frame outside this package and outside Spring proxies,
+     * typically the service method that triggered the statement.
+     */
+    private static String caller() {
+        return StackWalker.getInstance()
+                .walk(frames -> frames
+                        .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                                && !frame.getClassName().startsWith(CONFIG_PACKAGE)
+                                && !frame.getClassName().contains("$$"))
+                        .findFirst()
+                        .map(frame -> frame.getClassName().substring(APPLICATION_PACKAGE.length()) + "."
+                                + frame.getMethodName())
+                        .orElse(null));
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.fabioprada.financial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "slow-queries")
+public class SlowQueryProperties {
+    private boolean enabled = true;
+    private int size = 20;
+    private Duration threshold = Duration.ofMillis(10);
+}
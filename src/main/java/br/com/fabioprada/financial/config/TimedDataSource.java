@@ -0,0 +1,82 @@
+package br.com.fabioprada.financial.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * JDK proxies around a {@link DataSource} and the connections and statements
+ * it hands out, timing the {@code execute*} calls, batches included, into a
+ * {@link SlowQueryLog}. Every other call is passed straight to the target, so
+ * {@code unwrap}/{@code isWrapperFor} reach the pool and its metrics keep working.
+ */
+final class TimedDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement",
+            "prepareCall");
+
+    private static final Set<String> EXECUTIONS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private TimedDataSource() {
+    }
+
+    static DataSource wrap(DataSource dataSource, SlowQueryLog slowQueryLog) {
+        return proxy(DataSource.class, dataSource, (proxy, method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                return invoke(dataSource, method, args);
+            }
+            return wrap((Connection) invoke(dataSource, method, args), slowQueryLog);
+        });
+    }
+
+    private static Connection wrap(Connection connection, SlowQueryLog slowQueryLog) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            if (!STATEMENT_FACTORIES.contains(method.getName())) {
+                return invoke(connection, method, args);
+            }
+            // prepareStatement/prepareCall carry the SQL; plain statements pass it to execute
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return wrap((Statement) invoke(connection, method, args), sql, slowQueryLog);
+        });
+    }
+
+    private static Statement wrap(Statement statement, String preparedSql, SlowQueryLog slowQueryLog) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (!EXECUTIONS.contains(method.getName())) {
+                return invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                if (sql != null) {
+                    slowQueryLog.record(sql, System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<? extends T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.fabioprada.financial.controller;
 
+import br.com.fabioprada.financial.dto.AccountDTO;
 import br.com.fabioprada.financial.model.Account;
 import br.com.fabioprada.financial.service.AccountService;
 import org.springframework.http.ResponseEntity;
@@ -25,7 +26,7 @@ public class AccountController {
     }
 
     @GetMapping
-    public List<Account> listAll() {
+    public List<AccountDTO> listAll() {
         return accountService.findAll();
     }
 
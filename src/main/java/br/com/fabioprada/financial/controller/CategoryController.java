@@ -1,11 +1,13 @@
 package br.com.fabioprada.financial.controller;
 
+import br.com.fabioprada.financial.dto.IdNameDTO;
 import br.com.fabioprada.financial.service.CategoryService;
 import br.com.fabioprada.financial.model.Category;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -15,7 +17,7 @@ public class CategoryController {
     private CategoryService categoryService;
 
     @GetMapping
-    public List<Category> listAll() {
+    public List<IdNameDTO> listAll() {
         return categoryService.findAll();
     }
 
@@ -45,7 +47,7 @@ public class CategoryController {
 
     @PostMapping("/delete-multiple")
     public ResponseEntity<?> deleteMultiple(@RequestBody List<Long> ids) {
-        categoryService.deleteMultiple(ids);
-        return ResponseEntity.ok().build();
+        int deleted = categoryService.deleteMultiple(ids);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
     }
 }
\ No newline at end of file
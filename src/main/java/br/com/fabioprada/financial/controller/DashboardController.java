@@ -1,14 +1,20 @@
 package br.com.fabioprada.financial.controller;
 
 import br.com.fabioprada.financial.dto.MonthSummaryDTO;
-import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.exception.BadRequestException;
 import br.com.fabioprada.financial.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 
 @RestController
@@ -23,8 +29,28 @@ public class DashboardController {
         return dashboardService.getMonthlySummaries();
     }
 
+    @GetMapping("/summary/range")
+    public Map<String, MonthSummaryDTO> getSummaryRange(@RequestParam String from, @RequestParam String to) {
+        try {
+            return dashboardService.getMonthlySummaries(YearMonth.parse(from), YearMonth.parse(to));
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Months must use the yyyy-MM format", e);
+        }
+    }
+
     @GetMapping("/transactions")
-    public List<Transaction> getAllTransactions() {
-        return dashboardService.getAllTransactions();
+    public ResponseEntity<StreamingResponseBody> getAllTransactions(
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        StreamingResponseBody body = out -> dashboardService.writeTransactions(startDate, endDate, false, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/transactions/stream")
+    public ResponseEntity<StreamingResponseBody> streamTransactions(
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        StreamingResponseBody body = out -> dashboardService.writeTransactions(startDate, endDate, true, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 }
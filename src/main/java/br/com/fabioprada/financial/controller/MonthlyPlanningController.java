@@ -1,5 +1,6 @@
 package br.com.fabioprada.financial.controller;
 
+import br.com.fabioprada.financial.dto.MonthlyPlanningDTO;
 import br.com.fabioprada.financial.model.MonthlyPlanning;
 import br.com.fabioprada.financial.service.MonthlyPlanningService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,7 +21,7 @@ public class MonthlyPlanningController {
     private MonthlyPlanningService monthlyPlanningService;
 
     @GetMapping
-    public Page<MonthlyPlanning> getAllMonthlyPlanning(
+    public Page<MonthlyPlanningDTO> getAllMonthlyPlanning(
             Pageable pageable,
             @RequestParam(required = false) Integer month,
             @RequestParam(required = false) Integer year,
@@ -64,7 +66,7 @@ public class MonthlyPlanningController {
 
     @PostMapping("/delete-multiple")
     public ResponseEntity<?> deleteMultiple(@RequestBody List<Long> ids) {
-        monthlyPlanningService.deleteMultiple(ids);
-        return ResponseEntity.ok().build();
+        int deleted = monthlyPlanningService.deleteMultiple(ids);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
     }
 }
\ No newline at end of file
@@ -1,35 +1,43 @@
 package br.com.fabioprada.financial.controller;
 
+import br.com.fabioprada.financial.dto.ImportJobDTO;
+import br.com.fabioprada.financial.dto.ImportRejectionDTO;
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import br.com.fabioprada.financial.dto.TransactionSliceDTO;
 import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.service.ImportJobService;
 import br.com.fabioprada.financial.service.TransactionService;
+import br.com.fabioprada.financial.exception.BadRequestException;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 
 import java.util.List;
+import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.ByteArrayInputStream;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final ImportJobService importJobService;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, ImportJobService importJobService) {
         this.transactionService = transactionService;
+        this.importJobService = importJobService;
     }
 
     @GetMapping
-    public Page<Transaction> listAll(
+    public Page<TransactionDTO> listAll(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) LocalDate startDate,
             @RequestParam(required = false) LocalDate endDate,
@@ -41,6 +49,22 @@ public class TransactionController {
         return transactionService.searchTransactions(name, startDate, endDate, categoryId, transactionType, pageable);
     }
 
+    @GetMapping("/cursor")
+    public TransactionSliceDTO listAfter(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String transactionType,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        if (size < 1) {
+            throw new BadRequestException("size must be at least 1");
+        }
+        return transactionService.searchTransactionsAfter(name, startDate, endDate, categoryId, transactionType,
+                after, size);
+    }
+
     @PostMapping
     public Transaction create(@RequestBody Transaction transaction) {
         return transactionService.save(transaction);
@@ -62,6 +86,24 @@ public class TransactionController {
                 }).orElse(ResponseEntity.notFound().build());
     }
 
+    @PutMapping("/{id}/following")
+    public ResponseEntity<?> updateFollowing(@PathVariable Long id, @RequestBody Transaction transactionDetails) {
+        return transactionService.findByIdAndUserId(id)
+                .map(transaction -> {
+                    int updated = transactionService.updateFollowingInstallments(transaction, transactionDetails);
+                    return ResponseEntity.ok(Map.of("updated", updated));
+                }).orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}/following")
+    public ResponseEntity<?> deleteFollowing(@PathVariable Long id) {
+        return transactionService.findByIdAndUserId(id)
+                .map(transaction -> {
+                    int deleted = transactionService.deleteFollowingInstallments(transaction);
+                    return ResponseEntity.ok(Map.of("deleted", deleted));
+                }).orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleter(@PathVariable Long id) {
         return transactionService.findByIdAndUserId(id)
@@ -73,20 +115,20 @@ public class TransactionController {
 
     @PostMapping("/delete-multiple")
     public ResponseEntity<?> deleteMultiple(@RequestBody List<Long> ids) {
-        transactionService.deleteMultiple(ids);
-        return ResponseEntity.ok().build();
+        int deleted = transactionService.deleteMultiple(ids);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
     }
 
     @GetMapping("/export")
-    public ResponseEntity<InputStreamResource> export(
+    public ResponseEntity<StreamingResponseBody> export(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) LocalDate startDate,
             @RequestParam(required = false) LocalDate endDate,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String transactionType) {
 
-        ByteArrayInputStream in = transactionService.exportTransactions(name, startDate, endDate, categoryId,
-                transactionType);
+        StreamingResponseBody body = out -> transactionService.exportTransactions(name, startDate, endDate,
+                categoryId, transactionType, out);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=transacoes.xlsx");
@@ -96,12 +138,36 @@ public class TransactionController {
                 .headers(headers)
                 .contentType(
                         MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+                .body(body);
     }
 
     @PostMapping("/import")
-    public ResponseEntity<?> importTransactions(@RequestParam("file") MultipartFile file) {
-        transactionService.importTransactions(file);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<ImportJobDTO> importTransactions(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.accepted().body(importJobService.submit(file));
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    public ResponseEntity<ImportJobDTO> getImportJob(@PathVariable Long id) {
+        return importJobService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/import/jobs/{id}/rejections")
+    public ResponseEntity<List<ImportRejectionDTO>> getImportRejections(@PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "100") int size) {
+        if (size < 1 || size > 1000) {
+            throw new BadRequestException("size must be between 1 and 1000");
+        }
+        return importJobService.findRejections(id, PageRequest.of(page, size))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/import/jobs/{id}/resume")
+    public ResponseEntity<ImportJobDTO> resumeImportJob(@PathVariable Long id) {
+        return importJobService.resume(id)
+                .map(job -> ResponseEntity.accepted().body(job))
+                .orElse(ResponseEntity.notFound().build());
     }
 }
\ No newline at end of file
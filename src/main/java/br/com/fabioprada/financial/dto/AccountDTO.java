@@ -0,0 +1,25 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.Account;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of an account for the accounts page. Safe to cache and share
+ * between requests, unlike the entity.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountDTO {
+    private Long id;
+    private String name;
+    private BigDecimal initialBalance;
+    private BigDecimal currentBalance;
+
+    public static AccountDTO from(Account account) {
+        return new AccountDTO(account.getId(), account.getName(), account.getInitialBalance(),
+                account.getCurrentBalance());
+    }
+}
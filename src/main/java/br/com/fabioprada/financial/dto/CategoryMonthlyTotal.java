@@ -0,0 +1,15 @@
+package br.com.fabioprada.financial.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of spent amounts for one category and month. {@code yearMonth} is
+ * encoded as {@code year * 100 + month}, e.g. 202503.
+ */
+public interface CategoryMonthlyTotal {
+    Long getCategoryId();
+
+    Integer getYearMonth();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,10 @@
+package br.com.fabioprada.financial.dto;
+
+/**
+ * Number of a user's transactions sharing one content fingerprint.
+ */
+public interface FingerprintCount {
+    String getFingerprint();
+
+    Long getTotal();
+}
@@ -0,0 +1,24 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Reference to a related category or account, as embedded in listings.
+ */
+@Getter
+@AllArgsConstructor
+public class IdNameDTO {
+    private Long id;
+    private String name;
+
+    public static IdNameDTO of(Category category) {
+        return category != null ? new IdNameDTO(category.getId(), category.getName()) : null;
+    }
+
+    public static IdNameDTO of(Account account) {
+        return account != null ? new IdNameDTO(account.getId(), account.getName()) : null;
+    }
+}
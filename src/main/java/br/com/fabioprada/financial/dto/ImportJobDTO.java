@@ -0,0 +1,48 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.ImportJob;
+import br.com.fabioprada.financial.model.ImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ImportJobDTO {
+    private Long id;
+    private String fileName;
+    private ImportJobStatus status;
+    private Long totalRows;
+    private long processedRows;
+    private long skippedRows;
+    private long rejectedRows;
+    // Fraction of rows committed, from 0 to 1, once the total is known
+    private Double progress;
+    private double rowsPerSecond;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static ImportJobDTO from(ImportJob job) {
+        Double progress = null;
+        if (job.getTotalRows() != null) {
+            progress = job.getTotalRows() > 0 ? (double) job.getProcessedRows() / job.getTotalRows() : 1.0;
+        }
+
+        double rowsPerSecond = 0;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Duration.between(job.getStartedAt(), end).toMillis();
+            if (millis > 0) {
+                rowsPerSecond = (job.getProcessedRows() - job.getResumedFromRow()) * 1000.0 / millis;
+            }
+        }
+
+        return new ImportJobDTO(job.getId(), job.getFileName(), job.getStatus(), job.getTotalRows(),
+                job.getProcessedRows(), job.getSkippedRows(), job.getRejectedRows(), progress, rowsPerSecond,
+                job.getErrorMessage(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt());
+    }
+}
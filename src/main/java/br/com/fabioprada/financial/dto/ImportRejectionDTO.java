@@ -0,0 +1,17 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.ImportRejection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportRejectionDTO {
+    private String sheet;
+    private int rowNumber;
+    private String reason;
+
+    public static ImportRejectionDTO from(ImportRejection rejection) {
+        return new ImportRejectionDTO(rejection.getSheet(), rejection.getRowNumber(), rejection.getReason());
+    }
+}
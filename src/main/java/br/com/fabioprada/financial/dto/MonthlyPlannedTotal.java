@@ -0,0 +1,13 @@
+package br.com.fabioprada.financial.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of planned amounts for one month. {@code yearMonth} is encoded as
+ * {@code year * 100 + month}, e.g. 202503.
+ */
+public interface MonthlyPlannedTotal {
+    Integer getYearMonth();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,34 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.MonthlyPlanning;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of a monthly planning entry for the planning page.
+ */
+@Getter
+@AllArgsConstructor
+public class MonthlyPlanningDTO {
+    private Long id;
+    private int month;
+    private int year;
+    private IdNameDTO category;
+    private BigDecimal estimatedAmount;
+    private BigDecimal spentAmount;
+
+    public static MonthlyPlanningDTO from(MonthlyPlanning planning) {
+        return new MonthlyPlanningDTO(planning.getId(), planning.getMonth(), planning.getYear(),
+                IdNameDTO.of(planning.getCategory()), planning.getEstimatedAmount(), planning.getSpentAmount());
+    }
+
+    public String getYearMonth() {
+        return "%d-%02d".formatted(year, month);
+    }
+
+    public BigDecimal getPlannedValue() {
+        return estimatedAmount;
+    }
+}
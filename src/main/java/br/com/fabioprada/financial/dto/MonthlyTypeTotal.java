@@ -0,0 +1,17 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of transaction amounts for one month and type. {@code yearMonth} is
+ * encoded as {@code year * 100 + month}, e.g. 202503.
+ */
+public interface MonthlyTypeTotal {
+    Integer getYearMonth();
+
+    TransactionType getTransactionType();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,12 @@
+package br.com.fabioprada.financial.dto;
+
+/**
+ * Month and category a user already has a planning for.
+ */
+public interface PlanningSlot {
+    Integer getYear();
+
+    Integer getMonth();
+
+    Long getCategoryId();
+}
@@ -0,0 +1,38 @@
+package br.com.fabioprada.financial.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for transaction listings: the (creationDate, id) of
+ * the last row of the previous slice, encoded as URL-safe Base64.
+ */
+public record TransactionCursor(LocalDate creationDate, Long id) {
+
+    public String encode() {
+        String raw = creationDate + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+
+        int separator = raw.indexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        try {
+            return new TransactionCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionEntry;
+import br.com.fabioprada.financial.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a transaction for listings, with its category and
+ * accounts reduced to id and name.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionDTO {
+    private Long id;
+    private String name;
+    private BigDecimal amount;
+    private LocalDate creationDate;
+    private TransactionType transactionType;
+    private IdNameDTO category;
+    private IdNameDTO outAccount;
+    private IdNameDTO inAccount;
+    private Integer installmentNumber;
+    private Integer totalInstallments;
+    // Id of the installment plan shared by all installments of a purchase
+    private Long installmentGroupId;
+
+    /**
+     * Flat constructor for JPQL constructor expressions, which cannot build the
+     * nested references themselves.
+     */
+    public TransactionDTO(Long id, String name, BigDecimal amount, LocalDate creationDate,
+            TransactionType transactionType, Long categoryId, String categoryName, Long outAccountId,
+            String outAccountName, Long inAccountId, String inAccountName, Integer installmentNumber,
+            Integer totalInstallments, Long installmentGroupId) {
+        this(id, name, amount, creationDate, transactionType,
+                categoryId != null ? new IdNameDTO(categoryId, categoryName) : null,
+                outAccountId != null ? new IdNameDTO(outAccountId, outAccountName) : null,
+                inAccountId != null ? new IdNameDTO(inAccountId, inAccountName) : null,
+                installmentNumber, totalInstallments, installmentGroupId);
+    }
+
+    public static TransactionDTO from(Transaction transaction) {
+        return new TransactionDTO(transaction.getId(), transaction.getName(), transaction.getAmount(),
+                transaction.getCreationDate(), transaction.getTransactionType(),
+                IdNameDTO.of(transaction.getCategory()),
+                IdNameDTO.of(transaction.getOutAccount()),
+                IdNameDTO.of(transaction.getInAccount()),
+                transaction.getInstallmentNumber(), transaction.getTotalInstallments(),
+                transaction.getInstallmentPlan() != null ? transaction.getInstallmentPlan().getId() : null);
+    }
+
+    public static TransactionDTO from(TransactionEntry entry) {
+        return new TransactionDTO(entry.getId(), entry.getName(), entry.getAmount(), entry.getCreationDate(),
+                entry.getTransactionType(), IdNameDTO.of(entry.getCategory()), IdNameDTO.of(entry.getOutAccount()),
+                IdNameDTO.of(entry.getInAccount()), entry.getInstallmentNumber(), entry.getTotalInstallments(),
+                entry.getInstallmentPlanId());
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.fabioprada.financial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TransactionSliceDTO {
+    private List<TransactionDTO> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
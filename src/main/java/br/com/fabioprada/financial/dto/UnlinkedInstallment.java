@@ -0,0 +1,33 @@
+package br.com.fabioprada.financial.dto;
+
+import br.com.fabioprada.financial.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Installment row that is not linked to an installment plan yet.
+ */
+public interface UnlinkedInstallment {
+    Long getId();
+
+    Long getUserId();
+
+    String getName();
+
+    BigDecimal getAmount();
+
+    LocalDate getCreationDate();
+
+    Integer getInstallmentNumber();
+
+    Integer getTotalInstallments();
+
+    TransactionType getTransactionType();
+
+    Long getCategoryId();
+
+    Long getOutAccountId();
+
+    Long getInAccountId();
+}
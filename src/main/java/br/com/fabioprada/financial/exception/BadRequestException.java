@@ -0,0 +1,15 @@
+package br.com.fabioprada.financial.exception;
+
+/**
+ * Invalid input from the client, answered with 400 by {@link GlobalExceptionHandler}.
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,12 +1,12 @@
 package br.com.fabioprada.financial.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
-import org.hibernate.annotations.Formula;
 
 @Entity
 @Table(name = "contas")
@@ -15,7 +15,8 @@ import org.hibernate.annotations.Formula;
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contas_seq")
+    @SequenceGenerator(name = "contas_seq", sequenceName = "contas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,11 +25,11 @@ public class Account {
     @Column(nullable = false)
     private BigDecimal initialBalance;
 
-    @Formula("initial_balance + " +
-            "(SELECT COALESCE(SUM(t.amount), 0) FROM transacoes t WHERE t.conta_entrada_id = id) - " +
-            "(SELECT COALESCE(SUM(t.amount), 0) FROM transacoes t WHERE t.conta_saida_id = id)")
+    // Maintained by AccountBalanceService through atomic increments, never by entity updates
+    @Column(name = "current_balance", updatable = false)
     private BigDecimal currentBalance;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,74 @@
+package br.com.fabioprada.financial.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background import of an uploaded spreadsheet. {@code processedRows} is the
+ * checkpoint: it is committed together with each chunk of rows, so a failed
+ * job resumes right after the last committed chunk.
+ */
+@Entity
+@Table(name = "import_jobs", indexes = {
+        @Index(name = "idx_import_job_user", columnList = "user_id")
+})
+@Getter
+@Setter
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_jobs_seq")
+    @SequenceGenerator(name = "import_jobs_seq", sequenceName = "import_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    // Uploaded file kept on disk until the job completes or a failed job expires, so it can be resumed
+    @Column(nullable = false)
+    private String storedPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status;
+
+    // Rows parsed from the file, known once a run has read all of it
+    private Long totalRows;
+
+    @Column(nullable = false)
+    private long processedRows;
+
+    // Rows already present for the user and therefore not inserted again
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long skippedRows;
+
+    // Rows that could not be saved, see ImportRejection
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long rejectedRows;
+
+    // Checkpoint the current run started from, used for the rows/sec rate
+    @Column(nullable = false)
+    private long resumedFromRow;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
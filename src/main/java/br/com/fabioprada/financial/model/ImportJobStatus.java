@@ -0,0 +1,10 @@
+package br.com.fabioprada.financial.model;
+
+public enum ImportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    // Failed and not resumed before import-jobs.retention; the uploaded file is gone
+    EXPIRED
+}
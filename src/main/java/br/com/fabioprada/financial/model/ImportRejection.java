@@ -0,0 +1,36 @@
+package br.com.fabioprada.financial.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Spreadsheet row an import job could not save, with the reason. Committed
+ * together with the job's checkpoint, so a resumed job does not retry it.
+ */
+@Entity
+@Table(name = "import_rejections", indexes = {
+        @Index(name = "idx_import_rejection_job", columnList = "job_id")
+})
+@Getter
+@Setter
+public class ImportRejection {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_rejections_seq")
+    @SequenceGenerator(name = "import_rejections_seq", sequenceName = "import_rejections_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private ImportJob job;
+
+    @Column(nullable = false)
+    private String sheet;
+
+    @Column(nullable = false)
+    private int rowNumber;
+
+    @Column(nullable = false, length = 500)
+    private String reason;
+}
@@ -0,0 +1,224 @@
+package br.com.fabioprada.financial.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A purchase split into monthly installments, stored as this single row. The
+ * installments are not stored: {@link TransactionEntry} expands them when
+ * transactions are read, with negative ids derived from the plan id and the
+ * installment number. An installment edited on its own is stored as a
+ * {@link Transaction} row linked to the plan and its number is detached, as
+ * is the number of a deleted one, so it is no longer expanded.
+ */
+@Entity
+@Table(name = "installment_plans", indexes = {
+        @Index(name = "idx_installment_plan_user", columnList = "user_id")
+})
+@Getter
+@Setter
+public class InstallmentPlan {
+
+    public static final int MAX_INSTALLMENTS = 999;
+
+    // Virtual id of installment n of plan p is -(p * ID_SLOTS + n)
+    private static final long ID_SLOTS = MAX_INSTALLMENTS + 1;
+
+    /**
+     * The expanded installments, with the columns of {@code transacoes}. The
+     * last installment of a plan absorbs the rounding difference, as in
+     * {@link #amountOf(int)}.
+     */
+    public static final String INSTALLMENTS_SQL = "SELECT -(p.id * " + ID_SLOTS + " + n.installment_number) AS id,"
+            + " p.user_id, p.id AS installment_plan_id, n.installment_number, p.total_installments, p.name,"
+            + " CASE WHEN n.installment_number = p.first_number + p.installment_count - 1"
+            + " THEN p.total_amount - ROUND(p.total_amount / p.installment_count, 2) * (p.installment_count - 1)"
+            + " ELSE ROUND(p.total_amount / p.installment_count, 2) END AS amount,"
+            + " CAST(p.start_date + make_interval(months => n.installment_number - 1) AS date) AS creation_date,"
+            + " p.transaction_type, p.categoria_id, p.conta_saida_id, p.conta_entrada_id"
+            + " FROM installment_plans p"
+            + " CROSS JOIN LATERAL generate_series(p.first_number, p.first_number + p.installment_count - 1)"
+            + " AS n(installment_number)"
+            + " WHERE NOT EXISTS (SELECT 1 FROM installment_plan_detached d"
+            + " WHERE d.plan_id = p.id AND d.installment_number = n.installment_number)";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "installment_plans_seq")
+    @SequenceGenerator(name = "installment_plans_seq", sequenceName = "installment_plans_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String name;
+
+    // Sum of this plan's installments
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    // Installments held by this plan, numbered from firstNumber
+    @Column(nullable = false)
+    private int installmentCount;
+
+    // Above 1 for the later part of a purchase whose following installments were edited
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int firstNumber = 1;
+
+    // Installments of the whole purchase, shown next to each installment number
+    @Column(nullable = false)
+    private int totalInstallments;
+
+    // Date of the purchase's first installment; installment n falls n - 1 months later
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType transactionType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id")
+    private Category category;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_saida_id")
+    private Account outAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_entrada_id")
+    private Account inAccount;
+
+    // Installment numbers no longer expanded from the plan
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "installment_plan_detached", joinColumns = @JoinColumn(name = "plan_id"))
+    @Column(name = "installment_number")
+    private Set<Integer> detachedNumbers = new HashSet<>();
+
+    public static boolean isVirtualId(Long transactionId) {
+        return transactionId != null && transactionId < 0;
+    }
+
+    public static long planIdOf(long virtualId) {
+        return -virtualId / ID_SLOTS;
+    }
+
+    public static int numberOf(long virtualId) {
+        return (int) (-virtualId % ID_SLOTS);
+    }
+
+    public long virtualId(int installmentNumber) {
+        return -(id * ID_SLOTS + installmentNumber);
+    }
+
+    public int lastNumber() {
+        return firstNumber + installmentCount - 1;
+    }
+
+    public LocalDate dueDate(int installmentNumber) {
+        return startDate.plusMonths(installmentNumber - 1L);
+    }
+
+    /**
+     * Whether the installment is still expanded from this plan.
+     */
+    public boolean isExpanded(int installmentNumber) {
+        return installmentNumber >= firstNumber && installmentNumber <= lastNumber()
+                && !detachedNumbers.contains(installmentNumber);
+    }
+
+    public BigDecimal amountOf(int installmentNumber) {
+        BigDecimal share = totalAmount.divide(BigDecimal.valueOf(installmentCount), 2, RoundingMode.HALF_UP);
+        if (installmentNumber == lastNumber()) {
+            return totalAmount.subtract(share.multiply(BigDecimal.valueOf(installmentCount - 1L)));
+        }
+        return share;
+    }
+
+    /**
+     * Sum of the installments from the given number on that are still
+     * expanded, i.e. what they currently move in and out of the accounts.
+     */
+    public BigDecimal expandedAmountFrom(int installmentNumber) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int n = Math.max(installmentNumber, firstNumber); n <= lastNumber(); n++) {
+            if (!detachedNumbers.contains(n)) {
+                total = total.add(amountOf(n));
+            }
+        }
+        return total;
+    }
+
+    public int expandedCountFrom(int installmentNumber) {
+        int count = 0;
+        for (int n = Math.max(installmentNumber, firstNumber); n <= lastNumber(); n++) {
+            if (!detachedNumbers.contains(n)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drops the installments from the given number on, keeping the amounts of
+     * the ones before it.
+     */
+    public void truncateAt(int installmentNumber) {
+        detachedNumbers.removeIf(n -> n >= installmentNumber);
+        if (installmentNumber > lastNumber()) {
+            return;
+        }
+        int kept = Math.max(installmentNumber - firstNumber, 0);
+        // None of the kept installments was the last one, so they all carry the plain share
+        totalAmount = kept > 0 ? amountOf(firstNumber).multiply(BigDecimal.valueOf(kept)) : BigDecimal.ZERO;
+        installmentCount = kept;
+    }
+
+    /**
+     * Shortens the plan while its last installment is detached, so the total
+     * and count only cover installments up to the last one still expanded.
+     */
+    public void trimDetachedTail() {
+        while (installmentCount > 0 && detachedNumbers.contains(lastNumber())) {
+            truncateAt(lastNumber());
+        }
+    }
+
+    public boolean hasExpandedInstallments() {
+        return expandedCountFrom(firstNumber) > 0;
+    }
+
+    /**
+     * Unsaved transaction with the values of an expanded installment, as
+     * listings show it.
+     */
+    public Transaction installment(int installmentNumber) {
+        Transaction installment = new Transaction();
+        installment.setId(virtualId(installmentNumber));
+        installment.setUser(user);
+        installment.setName(name);
+        installment.setAmount(amountOf(installmentNumber));
+        installment.setCreationDate(dueDate(installmentNumber));
+        installment.setTransactionType(transactionType);
+        installment.setCategory(category);
+        installment.setOutAccount(outAccount);
+        installment.setInAccount(inAccount);
+        installment.setInstallmentPlan(this);
+        installment.setInstallmentNumber(installmentNumber);
+        installment.setTotalInstallments(totalInstallments);
+        return installment;
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.fabioprada.financial.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Pre-summed transaction amounts per user, month, category and type. Kept in
+ * step with {@code transacoes} by MonthlyAggregateService in the same database
+ * transaction as every write.
+ */
+@Entity
+// The primary key leads with category_id, so per-user month range reads need their own index
+@Table(name = "monthly_aggregates", indexes = {
+        @Index(name = "idx_monthly_aggregate_user_month", columnList = "user_id, year_month")
+})
+@Getter
+@Setter
+public class MonthlyAggregate {
+
+    /** Category id stored for transactions without a category. */
+    public static final long NO_CATEGORY = 0L;
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        // year * 100 + month, e.g. 202503
+        @Column(name = "year_month", nullable = false)
+        private int yearMonth;
+
+        @Column(name = "category_id", nullable = false)
+        private long categoryId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "transaction_type", nullable = false)
+        private TransactionType transactionType;
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.fabioprada.financial.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,13 +18,14 @@ import java.math.BigDecimal;
 public class MonthlyPlanning {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monthly_planning_seq")
+    @SequenceGenerator(name = "monthly_planning_seq", sequenceName = "monthly_planning_seq", allocationSize = 50)
     private Long id;
 
     private int month;
     private int year;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
@@ -32,6 +34,7 @@ public class MonthlyPlanning {
     @Transient
     private BigDecimal spentAmount;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -1,22 +1,28 @@
 package br.com.fabioprada.financial.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 @Entity
 @Table(name = "transacoes", indexes = {
-        @Index(name = "idx_transaction_user_date", columnList = "user_id, creation_date"),
-        @Index(name = "idx_transaction_user_category", columnList = "user_id, categoria_id")
+        @Index(name = "idx_transaction_user_date_id", columnList = "user_id, creation_date, id"),
+        @Index(name = "idx_transaction_user_category", columnList = "user_id, categoria_id"),
+        @Index(name = "idx_transaction_user_fingerprint", columnList = "user_id, fingerprint"),
+        @Index(name = "idx_transaction_installment_plan", columnList = "installment_plan_id, installment_number")
 })
 @CrossOrigin(origins = "http://localhost:5173") // Permite acesso do nosso frontend
 @Data
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacoes_seq")
+    @SequenceGenerator(name = "transacoes_seq", sequenceName = "transacoes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,18 +38,19 @@ public class Transaction {
     @Column(nullable = false)
     private TransactionType transactionType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "categoria_id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "conta_saida_id")
     private Account outAccount;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "conta_entrada_id")
     private Account inAccount;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -53,4 +60,43 @@ public class Transaction {
 
     @Column(name = "total_installments")
     private Integer totalInstallments;
-}
\ No newline at end of file
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "installment_plan_id")
+    private InstallmentPlan installmentPlan;
+
+    // See TransactionFingerprint; kept current on every insert and update
+    @JsonIgnore
+    @Column(length = 44)
+    private String fingerprint;
+
+    /**
+     * Values last written to the database, used to revert this row's effect on
+     * account balances and monthly aggregates when it is updated or deleted.
+     */
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private PersistedState persistedState;
+
+    @PrePersist
+    @PreUpdate
+    public void updateFingerprint() {
+        this.fingerprint = TransactionFingerprint.of(this);
+    }
+
+    @PostLoad
+    public void capturePersistedState() {
+        this.persistedState = new PersistedState(amount,
+                inAccount != null ? inAccount.getId() : null,
+                outAccount != null ? outAccount.getId() : null,
+                creationDate, transactionType,
+                category != null ? category.getId() : null);
+    }
+
+    public record PersistedState(BigDecimal amount, Long inAccountId, Long outAccountId,
+            LocalDate creationDate, TransactionType transactionType, Long categoryId) {
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.fabioprada.financial.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a user's transactions as listed: the stored
+ * {@code transacoes} rows plus the installments expanded from installment
+ * plans, which have negative ids. Filters on user and date are pushed down
+ * into both halves, so stored rows are still read through their indexes.
+ */
+@Entity
+@Immutable
+@Subselect(TransactionEntry.SQL)
+@Synchronize({ "transacoes", "installment_plans", "installment_plan_detached" })
+@Getter
+public class TransactionEntry {
+
+    public static final String SQL = "SELECT t.id, t.user_id, t.installment_plan_id, t.installment_number,"
+            + " t.total_installments, t.name, t.amount, t.creation_date, t.transaction_type, t.categoria_id,"
+            + " t.conta_saida_id, t.conta_entrada_id FROM transacoes t"
+            + " UNION ALL " + InstallmentPlan.INSTALLMENTS_SQL;
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    private String name;
+
+    private BigDecimal amount;
+
+    private LocalDate creationDate;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id")
+    private Category category;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_saida_id")
+    private Account outAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_entrada_id")
+    private Account inAccount;
+
+    @Column(name = "installment_number")
+    private Integer installmentNumber;
+
+    @Column(name = "total_installments")
+    private Integer totalInstallments;
+
+    @Column(name = "installment_plan_id")
+    private Long installmentPlanId;
+}
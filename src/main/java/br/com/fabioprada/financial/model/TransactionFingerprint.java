@@ -0,0 +1,47 @@
+package br.com.fabioprada.financial.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Content hash of a transaction: SHA-256 over name, date, amount, type,
+ * category and accounts, Base64 encoded. {@code TransactionRepository.FINGERPRINT_SQL}
+ * computes the same value in SQL, so both must change together.
+ */
+public final class TransactionFingerprint {
+
+    private static final String SEPARATOR = "\u001f";
+
+    private TransactionFingerprint() {
+    }
+
+    public static String of(Transaction transaction) {
+        String content = String.join(SEPARATOR,
+                text(transaction.getName()),
+                transaction.getCreationDate() != null ? transaction.getCreationDate().toString() : "",
+                transaction.getAmount() != null ? amount(transaction.getAmount()) : "",
+                transaction.getTransactionType() != null ? transaction.getTransactionType().name() : "",
+                transaction.getCategory() != null ? text(transaction.getCategory().getId()) : "",
+                transaction.getOutAccount() != null ? text(transaction.getOutAccount().getId()) : "",
+                transaction.getInAccount() != null ? text(transaction.getInAccount().getId()) : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Same scale as the amount column, so 10.5 and 10.50 hash alike
+    private static String amount(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -2,15 +2,82 @@ package br.com.fabioprada.financial.repository;
 
 import org.springframework.lang.NonNull;
 import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.TransactionEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    // Stored transactions plus the installments expanded from plans
+    String ALL_TRANSACTIONS = "(" + TransactionEntry.SQL + ") t";
+
+    // Net amount moved in and out of every account, in one pass over all transactions
+    String ACCOUNT_NET_JOIN = " LEFT JOIN (SELECT d.account_id, SUM(d.delta) AS net FROM ("
+            + "SELECT conta_entrada_id AS account_id, amount AS delta FROM " + ALL_TRANSACTIONS
+            + " WHERE conta_entrada_id IS NOT NULL"
+            + " UNION ALL"
+            + " SELECT conta_saida_id AS account_id, -amount AS delta FROM " + ALL_TRANSACTIONS
+            + " WHERE conta_saida_id IS NOT NULL"
+            + ") d GROUP BY d.account_id) n ON n.account_id = c.id";
+
     List<Account> findAllByUserId(@NonNull Long userId);
 
     Optional<Account> findByIdAndUserId(@NonNull Long id, @NonNull Long userId);
 
     Optional<Account> findByNameAndUserId(@NonNull String name, @NonNull Long userId);
-}
\ No newline at end of file
+
+    boolean existsByCurrentBalanceIsNull();
+
+    @Query("SELECT a.currentBalance FROM Account a WHERE a.id = :id")
+    BigDecimal findCurrentBalanceById(@Param("id") Long id);
+
+    // Pending changes are flushed first so the service can safely refresh a managed copy afterwards
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE contas SET current_balance = current_balance + :delta WHERE id = :id", nativeQuery = true)
+    int adjustBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // Net balance change per account caused by the given transactions of a user
+    String NET_BY_ACCOUNT = "(SELECT m.account_id, SUM(m.delta) AS net FROM ("
+            + "SELECT conta_entrada_id AS account_id, amount AS delta FROM transacoes"
+            + " WHERE user_id = :userId AND id IN (:ids) AND conta_entrada_id IS NOT NULL"
+            + " UNION ALL"
+            + " SELECT conta_saida_id AS account_id, -amount AS delta FROM transacoes"
+            + " WHERE user_id = :userId AND id IN (:ids) AND conta_saida_id IS NOT NULL"
+            + ") m GROUP BY m.account_id) d";
+
+    // The touched accounts are not known here, so managed copies are dropped instead of left stale
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE contas SET current_balance = contas.current_balance - d.net FROM " + NET_BY_ACCOUNT
+            + " WHERE contas.id = d.account_id", nativeQuery = true)
+    int revertBalancesOfTransactions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE contas SET current_balance = contas.current_balance + d.net FROM " + NET_BY_ACCOUNT
+            + " WHERE contas.id = d.account_id", nativeQuery = true)
+    int applyBalancesOfTransactions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE contas SET current_balance = initial_balance"
+            + " + COALESCE((SELECT SUM(t.amount) FROM " + ALL_TRANSACTIONS + " WHERE t.conta_entrada_id = :id), 0)"
+            + " - COALESCE((SELECT SUM(t.amount) FROM " + ALL_TRANSACTIONS + " WHERE t.conta_saida_id = :id), 0)"
+            + " WHERE id = :id", nativeQuery = true)
+    int recomputeBalance(@Param("id") Long id);
+
+    @Query(value = "SELECT COUNT(*) FROM contas c" + ACCOUNT_NET_JOIN
+            + " WHERE c.current_balance IS DISTINCT FROM c.initial_balance + COALESCE(n.net, 0)", nativeQuery = true)
+    long countMismatchedBalances();
+
+    @Modifying
+    @Query(value = "UPDATE contas SET current_balance = c.initial_balance + COALESCE(n.net, 0) FROM contas c"
+            + ACCOUNT_NET_JOIN
+            + " WHERE contas.id = c.id AND c.current_balance IS DISTINCT FROM c.initial_balance + COALESCE(n.net, 0)",
+            nativeQuery = true)
+    int reconcileBalances();
+}
@@ -3,7 +3,11 @@ package br.com.fabioprada.financial.repository;
 import org.springframework.lang.NonNull;
 import br.com.fabioprada.financial.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +19,8 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByNameAndUserId(@NonNull String name, @NonNull Long userId);
 
     void deleteByIdAndUserId(@NonNull Long id, @NonNull Long userId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Category c WHERE c.user.id = :userId AND c.id IN :ids")
+    int deleteAllByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") @NonNull Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package br.com.fabioprada.financial.repository;
+
+import br.com.fabioprada.financial.model.ImportJob;
+import br.com.fabioprada.financial.model.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    Optional<ImportJob> findByIdAndUserId(@NonNull Long id, @NonNull Long userId);
+
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.processedRows = :processedRows, j.skippedRows = :skippedRows, j.rejectedRows = :rejectedRows WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("processedRows") long processedRows,
+            @Param("skippedRows") long skippedRows, @Param("rejectedRows") long rejectedRows);
+
+    // Only one caller can move a job out of FAILED, so concurrent resumes never start two runs
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ImportJob j SET j.status = br.com.fabioprada.financial.model.ImportJobStatus.PENDING, j.errorMessage = NULL, j.finishedAt = NULL WHERE j.id = :id AND j.status = br.com.fabioprada.financial.model.ImportJobStatus.FAILED")
+    int markFailedAsPending(@Param("id") Long id);
+
+    // Jobs left running by a previous instance can only be resumed once marked as failed
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = br.com.fabioprada.financial.model.ImportJobStatus.FAILED, j.errorMessage = 'Interrupted by a restart', j.finishedAt = LOCAL DATETIME WHERE j.status IN (br.com.fabioprada.financial.model.ImportJobStatus.PENDING, br.com.fabioprada.financial.model.ImportJobStatus.RUNNING)")
+    int failInterruptedJobs();
+
+    List<ImportJob> findByStatusAndFinishedAtBefore(ImportJobStatus status, LocalDateTime finishedAt);
+}
@@ -0,0 +1,12 @@
+package br.com.fabioprada.financial.repository;
+
+import br.com.fabioprada.financial.model.ImportRejection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ImportRejectionRepository extends JpaRepository<ImportRejection, Long> {
+
+    List<ImportRejection> findByJobIdOrderById(Long jobId, Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package br.com.fabioprada.financial.repository;
+
+import br.com.fabioprada.financial.model.InstallmentPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface InstallmentPlanRepository extends JpaRepository<InstallmentPlan, Long> {
+
+    Optional<InstallmentPlan> findByIdAndUserId(@NonNull Long id, @NonNull Long userId);
+
+    List<InstallmentPlan> findAllByIdInAndUserId(Collection<Long> ids, @NonNull Long userId);
+}
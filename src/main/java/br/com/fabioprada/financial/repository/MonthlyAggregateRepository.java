@@ -0,0 +1,85 @@
+package br.com.fabioprada.financial.repository;
+
+import br.com.fabioprada.financial.dto.CategoryMonthlyTotal;
+import br.com.fabioprada.financial.dto.MonthlyTypeTotal;
+import br.com.fabioprada.financial.model.MonthlyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface MonthlyAggregateRepository extends JpaRepository<MonthlyAggregate, MonthlyAggregate.Key> {
+
+    // Groups transacoes rows into aggregate keys; callers append the WHERE clause
+    String AGGREGATE_SELECT = "SELECT t.user_id, CAST(EXTRACT(YEAR FROM t.creation_date) * 100"
+            + " + EXTRACT(MONTH FROM t.creation_date) AS integer) AS year_month,"
+            + " COALESCE(t.categoria_id, 0) AS category_id, t.transaction_type";
+
+    String AGGREGATE_GROUP_BY = " GROUP BY t.user_id, year_month, category_id, t.transaction_type";
+
+    String ON_CONFLICT_ADD = " ON CONFLICT (user_id, year_month, category_id, transaction_type) DO UPDATE"
+            + " SET total = monthly_aggregates.total + EXCLUDED.total,"
+            + " transaction_count = monthly_aggregates.transaction_count + EXCLUDED.transaction_count";
+
+    @Query("SELECT a.id.yearMonth AS yearMonth, a.id.transactionType AS transactionType, SUM(a.total) AS total FROM MonthlyAggregate a WHERE a.id.userId = :userId AND a.id.yearMonth BETWEEN :fromYearMonth AND :toYearMonth GROUP BY a.id.yearMonth, a.id.transactionType")
+    List<MonthlyTypeTotal> sumByMonthAndType(@Param("userId") Long userId,
+            @Param("fromYearMonth") int fromYearMonth, @Param("toYearMonth") int toYearMonth);
+
+    @Query("SELECT a.id.categoryId AS categoryId, a.id.yearMonth AS yearMonth, SUM(a.total) AS total FROM MonthlyAggregate a WHERE a.id.userId = :userId AND a.id.categoryId IN :categoryIds AND a.id.yearMonth BETWEEN :fromYearMonth AND :toYearMonth AND (a.id.transactionType = 'SAIDA' OR a.id.transactionType = 'MOVIMENTACAO') GROUP BY a.id.categoryId, a.id.yearMonth")
+    List<CategoryMonthlyTotal> sumSpentByCategoryAndMonth(@Param("userId") Long userId,
+            @Param("categoryIds") Collection<Long> categoryIds,
+            @Param("fromYearMonth") int fromYearMonth, @Param("toYearMonth") int toYearMonth);
+
+    @Modifying
+    @Query(value = "INSERT INTO monthly_aggregates (user_id, year_month, category_id, transaction_type, total, transaction_count)"
+            + " VALUES (:userId, :yearMonth, :categoryId, :transactionType, :amount, :count)"
+            + ON_CONFLICT_ADD, nativeQuery = true)
+    int add(@Param("userId") Long userId, @Param("yearMonth") int yearMonth, @Param("categoryId") long categoryId,
+            @Param("transactionType") String transactionType, @Param("amount") BigDecimal amount,
+            @Param("count") long count);
+
+    @Modifying
+    @Query(value = "INSERT INTO monthly_aggregates (user_id, year_month, category_id, transaction_type, total, transaction_count) "
+            + AGGREGATE_SELECT + ", -SUM(t.amount), -COUNT(*) FROM transacoes t"
+            + " WHERE t.user_id = :userId AND t.id IN (:ids)" + AGGREGATE_GROUP_BY
+            + ON_CONFLICT_ADD, nativeQuery = true)
+    int subtractTransactions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO monthly_aggregates (user_id, year_month, category_id, transaction_type, total, transaction_count) "
+            + AGGREGATE_SELECT + ", SUM(t.amount), COUNT(*) FROM transacoes t"
+            + " WHERE t.user_id = :userId AND t.id IN (:ids)" + AGGREGATE_GROUP_BY
+            + ON_CONFLICT_ADD, nativeQuery = true)
+    int addTransactions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Rows left without transactions by a revert
+    @Modifying
+    @Query(value = "DELETE FROM monthly_aggregates WHERE user_id = :userId AND year_month = :yearMonth"
+            + " AND category_id = :categoryId AND transaction_type = :transactionType AND transaction_count <= 0",
+            nativeQuery = true)
+    int deleteIfEmpty(@Param("userId") Long userId, @Param("yearMonth") int yearMonth,
+            @Param("categoryId") long categoryId, @Param("transactionType") String transactionType);
+
+    @Modifying
+    @Query(value = "DELETE FROM monthly_aggregates WHERE user_id = :userId AND transaction_count <= 0",
+            nativeQuery = true)
+    int deleteEmptyOfUser(@Param("userId") Long userId);
+
+    @Query(value = "SELECT NOT EXISTS (SELECT 1 FROM monthly_aggregates) AND EXISTS (SELECT 1 FROM transacoes)",
+            nativeQuery = true)
+    boolean needsBackfill();
+
+    @Modifying
+    @Query(value = "DELETE FROM monthly_aggregates", nativeQuery = true)
+    int deleteAllAggregates();
+
+    @Modifying
+    @Query(value = "INSERT INTO monthly_aggregates (user_id, year_month, category_id, transaction_type, total, transaction_count) "
+            + AGGREGATE_SELECT + ", SUM(t.amount), COUNT(*) FROM transacoes t" + AGGREGATE_GROUP_BY,
+            nativeQuery = true)
+    int insertAllAggregates();
+}
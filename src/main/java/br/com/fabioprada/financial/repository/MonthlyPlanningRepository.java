@@ -1,22 +1,49 @@
 package br.com.fabioprada.financial.repository;
 
+import br.com.fabioprada.financial.dto.MonthlyPlannedTotal;
+import br.com.fabioprada.financial.dto.PlanningSlot;
 import br.com.fabioprada.financial.model.MonthlyPlanning;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MonthlyPlanningRepository
         extends JpaRepository<MonthlyPlanning, Long>, JpaSpecificationExecutor<MonthlyPlanning> {
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<MonthlyPlanning> findAll(Specification<MonthlyPlanning> spec, Pageable pageable);
+
     @Query("SELECT mp FROM MonthlyPlanning mp WHERE mp.year = :year AND mp.month = :month AND mp.user.id = :userId")
     List<MonthlyPlanning> findByYearAndMonthAndUserId(@Param("year") int year, @Param("month") int month,
             @Param("userId") Long userId);
 
+    @Query("SELECT mp.year * 100 + mp.month AS yearMonth, SUM(mp.estimatedAmount) AS total FROM MonthlyPlanning mp WHERE mp.user.id = :userId AND mp.year BETWEEN :fromYear AND :toYear AND mp.year * 100 + mp.month BETWEEN :fromYearMonth AND :toYearMonth GROUP BY mp.year, mp.month")
+    List<MonthlyPlannedTotal> sumEstimatedAmountByMonth(@Param("userId") Long userId,
+            @Param("fromYear") int fromYear, @Param("toYear") int toYear,
+            @Param("fromYearMonth") int fromYearMonth, @Param("toYearMonth") int toYearMonth);
+
+    @EntityGraph(attributePaths = "category")
     List<MonthlyPlanning> findAllByUserId(Long userId);
 
+    @Query("SELECT mp.year AS year, mp.month AS month, mp.category.id AS categoryId FROM MonthlyPlanning mp WHERE mp.user.id = :userId AND mp.year IN :years")
+    List<PlanningSlot> findSlotsByUserIdAndYearIn(@Param("userId") Long userId,
+            @Param("years") Collection<Integer> years);
+
     void deleteByIdAndUserId(Long id, Long userId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM MonthlyPlanning mp WHERE mp.user.id = :userId AND mp.id IN :ids")
+    int deleteAllByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package br.com.fabioprada.financial.repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Half-open date range {@code [start, end)} used by the repositories instead
+ * of {@code YEAR()}/{@code MONTH()} predicates, so that PostgreSQL can
+ * range-scan the {@code (user_id, creation_date)} indexes.
+ */
+public record Period(LocalDate start, LocalDate end) {
+
+    // Bounds used for open ends, within the range PostgreSQL dates support
+    private static final LocalDate EARLIEST = LocalDate.of(1, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Range covering the given days inclusively; a {@code null} bound leaves
+     * that side open.
+     */
+    public static Period ofDays(LocalDate firstDay, LocalDate lastDay) {
+        return new Period(firstDay != null ? firstDay : EARLIEST,
+                lastDay != null ? lastDay.plusDays(1) : LATEST);
+    }
+
+    public static Period ofMonth(int year, int month) {
+        return ofMonth(YearMonth.of(year, month));
+    }
+
+    public static Period ofMonth(YearMonth month) {
+        return ofMonths(month, month);
+    }
+
+    public static Period ofMonths(YearMonth from, YearMonth to) {
+        return new Period(from.atDay(1), to.plusMonths(1).atDay(1));
+    }
+
+    public static Period ofYear(int year) {
+        return new Period(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.fabioprada.financial.repository;
+
+import br.com.fabioprada.financial.dto.CategoryMonthlyTotal;
+import br.com.fabioprada.financial.dto.FingerprintCount;
+import br.com.fabioprada.financial.dto.MonthlyTypeTotal;
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import br.com.fabioprada.financial.model.InstallmentPlan;
+import br.com.fabioprada.financial.model.TransactionEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads over {@link TransactionEntry}, where installment plans are already
+ * expanded into their installments.
+ */
+public interface TransactionEntryRepository
+        extends Repository<TransactionEntry, Long>, JpaSpecificationExecutor<TransactionEntry> {
+
+    // Associations rendered by listings, fetched in the same query
+    String[] LISTING_GRAPH = { "category", "outAccount", "inAccount" };
+
+    @Override
+    @EntityGraph(attributePaths = { "category", "outAccount", "inAccount" })
+    Page<TransactionEntry> findAll(Specification<TransactionEntry> spec, Pageable pageable);
+
+    @Query("SELECT e FROM TransactionEntry e WHERE e.user.id = :userId AND e.creationDate >= :start AND e.creationDate < :end")
+    List<TransactionEntry> findByUserIdAndCreationDateRange(@Param("userId") @NonNull Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    default List<TransactionEntry> findByYearAndMonth(int year, int month, @NonNull Long userId) {
+        Period period = Period.ofMonth(year, month);
+        return findByUserIdAndCreationDateRange(userId, period.start(), period.end());
+    }
+
+    // Read through a forward-only cursor, without creating managed entities
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new br.com.fabioprada.financial.dto.TransactionDTO(e.id, e.name, e.amount, e.creationDate, e.transactionType, c.id, c.name, oa.id, oa.name, ia.id, ia.name, e.installmentNumber, e.totalInstallments, e.installmentPlanId) FROM TransactionEntry e LEFT JOIN e.category c LEFT JOIN e.outAccount oa LEFT JOIN e.inAccount ia WHERE e.user.id = :userId AND e.creationDate >= :start AND e.creationDate < :end ORDER BY e.creationDate, e.id")
+    Stream<TransactionDTO> streamByUserIdAndCreationDateRange(@Param("userId") @NonNull Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Stored rows are already in monthly_aggregates; only expanded installments, which have negative ids, are summed
+    @Query("SELECT YEAR(e.creationDate) * 100 + MONTH(e.creationDate) AS yearMonth, e.transactionType AS transactionType, SUM(e.amount) AS total FROM TransactionEntry e WHERE e.user.id = :userId AND e.id < 0 AND e.creationDate >= :start AND e.creationDate < :end GROUP BY YEAR(e.creationDate), MONTH(e.creationDate), e.transactionType")
+    List<MonthlyTypeTotal> sumInstallmentsByMonthAndType(@Param("userId") Long userId,
+            @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT e.category.id AS categoryId, YEAR(e.creationDate) * 100 + MONTH(e.creationDate) AS yearMonth, SUM(e.amount) AS total FROM TransactionEntry e WHERE e.user.id = :userId AND e.id < 0 AND e.category.id IN :categoryIds AND e.creationDate >= :start AND e.creationDate < :end AND (e.transactionType = 'SAIDA' OR e.transactionType = 'MOVIMENTACAO') GROUP BY e.category.id, YEAR(e.creationDate), MONTH(e.creationDate)")
+    List<CategoryMonthlyTotal> sumSpentInstallmentsByCategoryAndMonth(@Param("userId") Long userId,
+            @Param("categoryIds") Collection<Long> categoryIds, @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    // Stored rows keep their fingerprint in transacoes; the expanded installments in the range get theirs computed
+    @Query(value = "SELECT i.fingerprint AS fingerprint, COUNT(*) AS total FROM (SELECT "
+            + TransactionRepository.FINGERPRINT_SQL + " AS fingerprint FROM (" + InstallmentPlan.INSTALLMENTS_SQL
+            + ") e WHERE e.user_id = :userId AND e.creation_date >= :start AND e.creation_date < :end) i"
+            + " WHERE i.fingerprint IN (:fingerprints) GROUP BY i.fingerprint", nativeQuery = true)
+    List<FingerprintCount> countInstallmentsByFingerprints(@Param("userId") @NonNull Long userId,
+            @Param("fingerprints") Collection<String> fingerprints, @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+}
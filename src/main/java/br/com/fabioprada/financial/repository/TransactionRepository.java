@@ -1,30 +1,92 @@
 package br.com.fabioprada.financial.repository;
 
+import br.com.fabioprada.financial.dto.FingerprintCount;
+import br.com.fabioprada.financial.dto.UnlinkedInstallment;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.InstallmentPlan;
 import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 
 import org.springframework.lang.NonNull;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.math.BigDecimal;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
 
-        @Query("SELECT t FROM Transaction t WHERE YEAR(t.creationDate) = :year AND MONTH(t.creationDate) = :month AND t.user.id = :userId")
-        List<Transaction> findByYearAndMonth(@Param("year") int year, @Param("month") int month,
-                        @Param("userId") @NonNull Long userId);
-
-        @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.category.id = :categoryId AND YEAR(t.creationDate) = :year AND MONTH(t.creationDate) = :month AND t.user.id = :userId AND (t.transactionType = 'SAIDA' OR t.transactionType = 'MOVIMENTACAO')")
-        BigDecimal sumAmountByCategoryIdAndYearAndMonthAndUserId(@Param("categoryId") Long categoryId,
-                        @Param("year") int year, @Param("month") int month, @Param("userId") Long userId);
+        // Same value as TransactionFingerprint, computed from the stored row
+        String FINGERPRINT_SQL = "encode(sha256(convert_to(concat_ws(chr(31),"
+                        + " name, CAST(creation_date AS text), CAST(round(amount, 2) AS text), transaction_type,"
+                        + " COALESCE(CAST(categoria_id AS text), ''), COALESCE(CAST(conta_saida_id AS text), ''),"
+                        + " COALESCE(CAST(conta_entrada_id AS text), '')), 'UTF8')), 'base64')";
 
+        @EntityGraph(attributePaths = { "category", "outAccount", "inAccount" })
         List<Transaction> findAllByUserId(@NonNull Long userId);
 
         Optional<Transaction> findByIdAndUserId(@NonNull Long id, @NonNull Long userId);
 
         void deleteByIdAndUserId(@NonNull Long id, @NonNull Long userId);
-}
\ No newline at end of file
+
+        @Modifying(clearAutomatically = true)
+        @Query("DELETE FROM Transaction t WHERE t.user.id = :userId AND t.id IN :ids")
+        int deleteAllByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") @NonNull Long userId);
+
+        @Query("SELECT t.fingerprint AS fingerprint, COUNT(t) AS total FROM Transaction t WHERE t.user.id = :userId AND t.fingerprint IN :fingerprints GROUP BY t.fingerprint")
+        List<FingerprintCount> countByFingerprints(@Param("userId") @NonNull Long userId,
+                        @Param("fingerprints") Collection<String> fingerprints);
+
+        @Modifying
+        @Query(value = "UPDATE transacoes SET fingerprint = " + FINGERPRINT_SQL + " WHERE fingerprint IS NULL",
+                        nativeQuery = true)
+        int backfillFingerprints();
+
+        @Modifying
+        @Query(value = "UPDATE transacoes SET fingerprint = " + FINGERPRINT_SQL
+                        + " WHERE user_id = :userId AND id IN (:ids)", nativeQuery = true)
+        int refreshFingerprints(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+        @Query("SELECT t.id FROM Transaction t WHERE t.user.id = :userId AND t.installmentPlan.id = :planId AND t.installmentNumber >= :fromNumber")
+        List<Long> findInstallmentIdsFrom(@Param("userId") @NonNull Long userId, @Param("planId") Long planId,
+                        @Param("fromNumber") int fromNumber);
+
+        // Also moves the installments to the given plan, which differs when the purchase was split
+        @Modifying(clearAutomatically = true)
+        @Query("UPDATE Transaction t SET t.installmentPlan = :plan, t.name = :name, t.amount = :amount, t.transactionType = :transactionType, t.category = :category, t.outAccount = :outAccount, t.inAccount = :inAccount WHERE t.user.id = :userId AND t.installmentPlan.id = :planId AND t.installmentNumber >= :fromNumber")
+        int updateInstallmentsFrom(@Param("userId") @NonNull Long userId, @Param("planId") Long planId,
+                        @Param("fromNumber") int fromNumber, @Param("plan") InstallmentPlan plan,
+                        @Param("name") String name,
+                        @Param("amount") BigDecimal amount, @Param("transactionType") TransactionType transactionType,
+                        @Param("category") Category category, @Param("outAccount") Account outAccount,
+                        @Param("inAccount") Account inAccount);
+
+        long countByInstallmentPlanId(Long planId);
+
+        @Query("SELECT DISTINCT t.installmentPlan.id FROM Transaction t WHERE t.user.id = :userId AND t.id IN :ids AND t.installmentPlan IS NOT NULL")
+        List<Long> findInstallmentPlanIds(@Param("userId") @NonNull Long userId, @Param("ids") Collection<Long> ids);
+
+        @Modifying(clearAutomatically = true)
+        @Query("DELETE FROM Transaction t WHERE t.user.id = :userId AND t.installmentPlan.id = :planId AND t.installmentNumber >= :fromNumber")
+        int deleteInstallmentsFrom(@Param("userId") @NonNull Long userId, @Param("planId") Long planId,
+                        @Param("fromNumber") int fromNumber);
+
+        @Modifying(clearAutomatically = true)
+        @Query("UPDATE Transaction t SET t.totalInstallments = :totalInstallments WHERE t.installmentPlan.id = :planId")
+        int updateTotalInstallments(@Param("planId") Long planId, @Param("totalInstallments") int totalInstallments);
+
+        // Installments saved before they were linked to a plan
+        @Query("SELECT t.id AS id, t.user.id AS userId, t.name AS name, t.amount AS amount, t.creationDate AS creationDate, t.installmentNumber AS installmentNumber, t.totalInstallments AS totalInstallments, t.transactionType AS transactionType, t.category.id AS categoryId, t.outAccount.id AS outAccountId, t.inAccount.id AS inAccountId FROM Transaction t WHERE t.installmentPlan IS NULL AND t.totalInstallments > 1 AND t.installmentNumber IS NOT NULL")
+        List<UnlinkedInstallment> findUnlinkedInstallments();
+
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Transaction t SET t.installmentPlan = :plan WHERE t.id IN :ids")
+        int linkInstallmentPlan(@Param("plan") InstallmentPlan plan, @Param("ids") Collection<Long> ids);
+}
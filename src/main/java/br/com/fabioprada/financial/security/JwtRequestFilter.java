@@ -1,5 +1,6 @@
 package br.com.fabioprada.financial.security;
 
+import br.com.fabioprada.financial.model.User;
 import org.springframework.lang.NonNull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,12 +10,15 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import java.io.IOException;
 import java.util.List;
@@ -25,43 +29,81 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final PrincipalCache principalCache;
+    private final Timer authenticationTimer;
 
-    public JwtRequestFilter(UserDetailsService userDetailsService, JwtTokenProvider jwtTokenProvider) {
+    public JwtRequestFilter(UserDetailsService userDetailsService, JwtTokenProvider jwtTokenProvider,
+            PrincipalCache principalCache, MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.principalCache = principalCache;
+        this.authenticationTimer = Timer.builder("security.jwt.filter")
+                .description("Time spent authenticating a bearer token, excluding the rest of the request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
             @NonNull FilterChain chain) throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
-
-        String username = null;
-        String jwt = null;
-
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtTokenProvider.getUsernameFromToken(jwt);
+            Timer.Sample sample = Timer.start();
+            try {
+                authenticate(request, authorizationHeader.substring(7));
+            } finally {
+                sample.stop(authenticationTimer);
+            }
         }
+        chain.doFilter(request, response);
+    }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            if (jwtTokenProvider.validateToken(jwt, userDetails)) {
-                Claims claims = jwtTokenProvider.getAllClaimsFromToken(jwt);
-                @SuppressWarnings("unchecked")
-                List<String> roles = claims.get("roles", List.class);
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(role -> new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role))
-                        .collect(Collectors.toList());
+    private void authenticate(HttpServletRequest request, String token) {
+        VerifiedToken verified;
+        try {
+            // Verifying checks the signature and the expiration date
+            verified = jwtTokenProvider.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired or invalid token: the request goes on unauthenticated
+            return;
+        }
 
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, authorities);
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        if (verified.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            User user = currentUser(verified);
+            if (user == null) {
+                return;
             }
+
+            List<SimpleGrantedAuthority> authorities = verified.roles().stream()
+                    .map(role -> new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role))
+                    .collect(Collectors.toList());
+
+            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                    user, null, authorities);
+            usernamePasswordAuthenticationToken
+                    .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
         }
-        chain.doFilter(request, response);
+    }
+
+    /**
+     * The user behind a verified token, from the principal cache. Only the
+     * subject and the "uid" claim are trusted; the name and everything else
+     * come from the user's current row, so renames and deletions are seen
+     * once the cache entry is evicted or expires. Returns {@code null} when
+     * the user no longer exists or the email now belongs to another user.
+     */
+    private User currentUser(VerifiedToken verified) {
+        UserDetails userDetails;
+        try {
+            userDetails = principalCache.get(verified.subject(), userDetailsService::loadUserByUsername);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        if (!(userDetails instanceof User user)
+                || (verified.uid() != null && !verified.uid().equals(user.getId()))) {
+            return null;
+        }
+        return user;
     }
 }
@@ -2,7 +2,11 @@ package br.com.fabioprada.financial.security;
 
 import br.com.fabioprada.financial.config.JwtProperties;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -10,12 +14,16 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.security.core.GrantedAuthority;
 import java.util.stream.Collectors;
@@ -30,32 +38,68 @@ public class JwtTokenProvider {
     }
 
     private Key key;
+    private JwtParser parser;
+
+    // Verified tokens by digest, each kept until the token itself expires
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                    long remainingMillis = token.expiresAt().toEpochMilli() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime,
+                        long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String digest, VerifiedToken token, long currentTime,
+                        long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+    /**
+     * Verifies the signature and expiration of the token and returns what it
+     * carries. A token is only parsed the first time it is seen; later calls
+     * are served from the cache until it expires. Invalid tokens throw
+     * {@link io.jsonwebtoken.JwtException}.
+     */
+    public VerifiedToken verify(String token) {
+        return verifiedTokens.get(digest(token), digest -> toVerifiedToken(parseClaims(token)));
     }
 
-    public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+    // Full signature and expiration check, bypassing the cache
+    Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
-    }
-
-    Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    @SuppressWarnings("unchecked")
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        Number uid = claims.get("uid", Number.class);
+        return new VerifiedToken(uid != null ? uid.longValue() : null, claims.getSubject(),
+                claims.get("name", String.class), claims.get("roles", List.class),
+                claims.getExpiration().toInstant());
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -66,7 +110,9 @@ public class JwtTokenProvider {
         claims.put("roles", roles);
 
         if (userDetails instanceof br.com.fabioprada.financial.model.User) {
-            claims.put("name", ((br.com.fabioprada.financial.model.User) userDetails).getName());
+            br.com.fabioprada.financial.model.User user = (br.com.fabioprada.financial.model.User) userDetails;
+            claims.put("uid", user.getId());
+            claims.put("name", user.getName());
         }
 
         return doGenerateToken(claims, userDetails.getUsername());
@@ -77,9 +123,4 @@ public class JwtTokenProvider {
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration() * 1000))
                 .signWith(key).compact();
     }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
 }
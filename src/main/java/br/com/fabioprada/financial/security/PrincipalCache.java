@@ -0,0 +1,31 @@
+package br.com.fabioprada.financial.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of the user entities behind request principals, so a
+ * verified token does not cost a database round trip on every request.
+ * Entries expire on their own and are evicted when the user changes.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserDetails> cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.fabioprada.financial.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What the application reads from a token once its signature and expiration
+ * have been checked. Immutable, so one instance is safely shared by every
+ * request that presents the same token.
+ */
+public record VerifiedToken(Long uid, String subject, String name, List<String> roles, Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.InstallmentPlan;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps {@code contas.current_balance} in step with {@code transacoes} and the
+ * installments expanded from installment plans. Every
+ * change is an atomic increment applied in the caller's database transaction.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class AccountBalanceService {
+
+    private final AccountRepository accountRepository;
+    private final EntityManager entityManager;
+
+    public AccountBalanceService(AccountRepository accountRepository, EntityManager entityManager) {
+        this.accountRepository = accountRepository;
+        this.entityManager = entityManager;
+    }
+
+    public void apply(Transaction transaction) {
+        adjust(transaction.getInAccount() != null ? transaction.getInAccount().getId() : null,
+                transaction.getOutAccount() != null ? transaction.getOutAccount().getId() : null,
+                transaction.getAmount());
+        transaction.capturePersistedState();
+    }
+
+    /**
+     * Applies a batch of new transactions with one increment per touched
+     * account instead of one per row.
+     */
+    public void applyAll(Iterable<Transaction> transactions) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            BigDecimal amount = transaction.getAmount();
+            if (amount != null && amount.signum() != 0) {
+                if (transaction.getInAccount() != null) {
+                    deltas.merge(transaction.getInAccount().getId(), amount, BigDecimal::add);
+                }
+                if (transaction.getOutAccount() != null) {
+                    deltas.merge(transaction.getOutAccount().getId(), amount.negate(), BigDecimal::add);
+                }
+            }
+            transaction.capturePersistedState();
+        }
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                adjustBalance(accountId, delta);
+            }
+        });
+    }
+
+    public void revert(Transaction transaction) {
+        Transaction.PersistedState state = transaction.getPersistedState();
+        if (state != null && state.amount() != null) {
+            adjust(state.inAccountId(), state.outAccountId(), state.amount().negate());
+        }
+    }
+
+    /**
+     * Reverts the effect of the given transactions of a user with a single
+     * grouped update. Must run before the rows are deleted.
+     */
+    public void revertAll(Long userId, Collection<Long> transactionIds) {
+        accountRepository.revertBalancesOfTransactions(userId, transactionIds);
+    }
+
+    /**
+     * Applies the current effect of the given transactions of a user with a
+     * single grouped update, for rows changed by bulk statements.
+     */
+    public void applyAll(Long userId, Collection<Long> transactionIds) {
+        accountRepository.applyBalancesOfTransactions(userId, transactionIds);
+    }
+
+    /**
+     * Moves the given amount of a plan's expanded installments in and out of
+     * the plan's accounts; negative to take them back.
+     */
+    public void applyInstallments(InstallmentPlan plan, BigDecimal amount) {
+        adjust(plan.getInAccount() != null ? plan.getInAccount().getId() : null,
+                plan.getOutAccount() != null ? plan.getOutAccount().getId() : null, amount);
+    }
+
+    private void adjust(Long inAccountId, Long outAccountId, BigDecimal amount) {
+        if (amount == null || amount.signum() == 0) {
+            return;
+        }
+        if (inAccountId != null) {
+            adjustBalance(inAccountId, amount);
+        }
+        if (outAccountId != null) {
+            adjustBalance(outAccountId, amount.negate());
+        }
+    }
+
+    /**
+     * Increments the stored balance and reloads the account if this
+     * persistence context already holds it, so it does not keep serving the
+     * balance read before the increment.
+     */
+    private void adjustBalance(Long accountId, BigDecimal delta) {
+        accountRepository.adjustBalance(accountId, delta);
+        // Returns the managed instance if loaded, otherwise an uninitialized proxy without a query
+        Account account = entityManager.getReference(Account.class, accountId);
+        if (Hibernate.isInitialized(account)) {
+            entityManager.refresh(account);
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void recompute(Long accountId) {
+        accountRepository.recomputeBalance(accountId);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public long countMismatches() {
+        return accountRepository.countMismatchedBalances();
+    }
+
+    /**
+     * Recomputes every account balance from its transactions in bulk and fixes
+     * the ones that drifted, returning how many were corrected.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public int reconcile() {
+        return accountRepository.reconcileBalances();
+    }
+}
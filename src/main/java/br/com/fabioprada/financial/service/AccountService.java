@@ -1,12 +1,13 @@
 package br.com.fabioprada.financial.service;
 
+import br.com.fabioprada.financial.dto.AccountDTO;
 import br.com.fabioprada.financial.model.Account;
 import br.com.fabioprada.financial.model.User;
 import br.com.fabioprada.financial.repository.AccountRepository;
 import br.com.fabioprada.financial.security.UserContextService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -16,15 +17,22 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final UserContextService userContextService;
+    private final AccountBalanceService accountBalanceService;
+    private final UserScopedCache userScopedCache;
 
-    public AccountService(AccountRepository accountRepository, UserContextService userContextService) {
+    public AccountService(AccountRepository accountRepository, UserContextService userContextService,
+            AccountBalanceService accountBalanceService, UserScopedCache userScopedCache) {
         this.accountRepository = accountRepository;
         this.userContextService = userContextService;
+        this.accountBalanceService = accountBalanceService;
+        this.userScopedCache = userScopedCache;
     }
 
-    public List<Account> findAll() {
+    public List<AccountDTO> findAll() {
         return userContextService.getCurrentUser()
-                .map(user -> accountRepository.findAllByUserId(user.getId()))
+                .map(user -> userScopedCache.get(UserScopedCache.ACCOUNTS, user.getId(), "all",
+                        () -> accountRepository.findAllByUserId(user.getId()).stream().map(AccountDTO::from)
+                                .toList()))
                 .orElse(Collections.emptyList());
     }
 
@@ -33,34 +41,30 @@ public class AccountService {
                 .flatMap(user -> accountRepository.findByIdAndUserId(id, user.getId()));
     }
 
+    @Transactional
     public Account save(Account account) {
         User user = userContextService.getCurrentUserOrThrow();
         account.setUser(user);
+        userScopedCache.evict(user.getId(), UserScopedCache.ACCOUNTS);
 
-        if (account.getId() != null) {
-            // Existing account, adjust current balance based on initial balance change
-            Account existingAccount = accountRepository.findById(account.getId())
-                    .orElseThrow(() -> new RuntimeException("Account not found with id: " + account.getId()));
-
-            BigDecimal oldInitialBalance = existingAccount.getInitialBalance();
-            BigDecimal newInitialBalance = account.getInitialBalance();
-
-            if (oldInitialBalance.compareTo(newInitialBalance) != 0) {
-                BigDecimal difference = newInitialBalance.subtract(oldInitialBalance);
-                account.setCurrentBalance(existingAccount.getCurrentBalance().add(difference));
-            } else {
-                account.setCurrentBalance(existingAccount.getCurrentBalance());
-            }
-        } else {
-            // New account, set current balance to initial balance
+        if (account.getId() == null) {
+            // New account, current balance starts at the initial balance
             account.setCurrentBalance(account.getInitialBalance());
+            return accountRepository.save(account);
         }
 
-        return accountRepository.save(account);
+        // Existing account, the initial balance may have changed so rebuild this account's balance
+        Account savedAccount = accountRepository.saveAndFlush(account);
+        accountBalanceService.recompute(savedAccount.getId());
+        savedAccount.setCurrentBalance(accountRepository.findCurrentBalanceById(savedAccount.getId()));
+        return savedAccount;
     }
 
     public void deleteById(Long id) {
         userContextService.getCurrentUser().ifPresent(user -> accountRepository.findByIdAndUserId(id, user.getId())
-                .ifPresent(accountRepository::delete));
+                .ifPresent(account -> {
+                    accountRepository.delete(account);
+                    userScopedCache.evict(user.getId(), UserScopedCache.ACCOUNTS);
+                }));
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package br.com.fabioprada.financial.service;
 
+import br.com.fabioprada.financial.dto.IdNameDTO;
 import br.com.fabioprada.financial.model.Category;
 import br.com.fabioprada.financial.model.User;
 import br.com.fabioprada.financial.repository.CategoryRepository;
@@ -18,15 +19,20 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final UserContextService userContextService;
+    private final UserScopedCache userScopedCache;
 
-    public CategoryService(CategoryRepository categoryRepository, UserContextService userContextService) {
+    public CategoryService(CategoryRepository categoryRepository, UserContextService userContextService,
+            UserScopedCache userScopedCache) {
         this.categoryRepository = categoryRepository;
         this.userContextService = userContextService;
+        this.userScopedCache = userScopedCache;
     }
 
-    public List<Category> findAll() {
+    public List<IdNameDTO> findAll() {
         return userContextService.getCurrentUser()
-                .map(user -> categoryRepository.findAllByUserId(user.getId()))
+                .map(user -> userScopedCache.get(UserScopedCache.CATEGORIES, user.getId(), "all",
+                        () -> categoryRepository.findAllByUserId(user.getId()).stream().map(IdNameDTO::of)
+                                .toList()))
                 .orElse(Collections.emptyList());
     }
 
@@ -38,21 +44,32 @@ public class CategoryService {
     public Category save(Category category) {
         User user = userContextService.getCurrentUserOrThrow();
         category.setUser(user);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        evictCaches(user);
+        return saved;
     }
 
     public void deleteById(Long id) {
         userContextService.getCurrentUser().ifPresent(user -> categoryRepository.findByIdAndUserId(id, user.getId())
-                .ifPresent(categoryRepository::delete));
+                .ifPresent(category -> {
+                    categoryRepository.delete(category);
+                    evictCaches(user);
+                }));
     }
 
-    public void deleteMultiple(List<Long> ids) {
-        userContextService.getCurrentUser().ifPresent(user -> {
-            Long userId = user.getId();
-            for (Long id : ids) {
-                categoryRepository.findByIdAndUserId(id, userId)
-                        .ifPresent(categoryRepository::delete);
-            }
-        });
+    public int deleteMultiple(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return userContextService.getCurrentUser().map(user -> {
+            int deleted = categoryRepository.deleteAllByIdInAndUserId(ids, user.getId());
+            evictCaches(user);
+            return deleted;
+        }).orElse(0);
+    }
+
+    // Plannings embed their category
+    private void evictCaches(User user) {
+        userScopedCache.evict(user.getId(), UserScopedCache.CATEGORIES, UserScopedCache.PLANNINGS);
     }
 }
@@ -1,34 +1,65 @@
 package br.com.fabioprada.financial.service;
 
 import br.com.fabioprada.financial.dto.MonthSummaryDTO;
-import br.com.fabioprada.financial.model.MonthlyPlanning;
-import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.exception.BadRequestException;
+import br.com.fabioprada.financial.dto.MonthlyPlannedTotal;
+import br.com.fabioprada.financial.dto.MonthlyTypeTotal;
+import br.com.fabioprada.financial.dto.TransactionDTO;
 import br.com.fabioprada.financial.model.TransactionType;
 import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.MonthlyAggregateRepository;
 import br.com.fabioprada.financial.repository.MonthlyPlanningRepository;
-import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.repository.Period;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 public class DashboardService {
 
-    private final TransactionRepository transactionRepository;
+    private static final int MAX_SUMMARY_MONTHS = 120;
+
+    private final TransactionEntryRepository transactionEntryRepository;
     private final MonthlyPlanningRepository monthlyPlanningRepository;
+    private final UserScopedCache userScopedCache;
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final ObjectMapper objectMapper;
+    private final Timer summaryTimer;
 
-    public DashboardService(TransactionRepository transactionRepository,
-            MonthlyPlanningRepository monthlyPlanningRepository) {
-        this.transactionRepository = transactionRepository;
+    public DashboardService(TransactionEntryRepository transactionEntryRepository,
+            MonthlyPlanningRepository monthlyPlanningRepository, UserScopedCache userScopedCache,
+            MonthlyAggregateRepository monthlyAggregateRepository, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.transactionEntryRepository = transactionEntryRepository;
         this.monthlyPlanningRepository = monthlyPlanningRepository;
+        this.userScopedCache = userScopedCache;
+        this.monthlyAggregateRepository = monthlyAggregateRepository;
+        this.objectMapper = objectMapper;
+        this.summaryTimer = Timer.builder("dashboard.summary")
+                .description("Monthly summary latency, cache hits included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public Map<String, MonthSummaryDTO> getMonthlySummaries() {
@@ -43,58 +74,141 @@ public class DashboardService {
                 YearMonth previousMonth = currentMonth.minusMonths(1);
                 YearMonth nextMonth = currentMonth.plusMonths(1);
 
-                MonthSummaryDTO previousMonth2Summary = createSummaryForMonth(previousMonth2,
-                        Objects.requireNonNull(userId));
-                MonthSummaryDTO previousMonthSummary = createSummaryForMonth(previousMonth,
+                Map<YearMonth, MonthSummaryDTO> summaries = cachedSummariesForWindow(previousMonth2, nextMonth,
                         Objects.requireNonNull(userId));
-                MonthSummaryDTO currentMonthSummary = createSummaryForMonth(currentMonth,
-                        Objects.requireNonNull(userId));
-                MonthSummaryDTO nextMonthSummary = createSummaryForMonth(nextMonth, Objects.requireNonNull(userId));
 
                 return Map.of(
-                        "previous2", previousMonth2Summary,
-                        "previous", previousMonthSummary,
-                        "current", currentMonthSummary,
-                        "next", nextMonthSummary);
+                        "previous2", summaries.get(previousMonth2),
+                        "previous", summaries.get(previousMonth),
+                        "current", summaries.get(currentMonth),
+                        "next", summaries.get(nextMonth));
             }
         }
         return Collections.emptyMap();
     }
 
-    public List<Transaction> getAllTransactions() {
+    public Map<String, MonthSummaryDTO> getMonthlySummaries(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (from.plusMonths(MAX_SUMMARY_MONTHS).isBefore(to)) {
+            throw new BadRequestException("Summary window cannot exceed " + MAX_SUMMARY_MONTHS + " months");
+        }
+
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof User) {
             User user = (User) principal;
             Long userId = user.getId();
             if (userId != null) {
-                return transactionRepository.findAllByUserId(Objects.requireNonNull(userId));
+                Map<String, MonthSummaryDTO> result = new LinkedHashMap<>();
+                cachedSummariesForWindow(from, to, Objects.requireNonNull(userId))
+                        .forEach((month, summary) -> result.put(month.toString(), summary));
+                return result;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Writes the user's transactions in the given days, oldest first, as they
+     * are read from a database cursor: either as one JSON array or as
+     * newline-delimited JSON. Memory use does not depend on the row count.
+     */
+    @Transactional(readOnly = true)
+    public void writeTransactions(LocalDate startDate, LocalDate endDate, boolean ndjson, OutputStream out)
+            throws IOException {
+        Long userId = null;
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof User) {
+            userId = ((User) principal).getId();
+        }
+        if (userId == null) {
+            if (!ndjson) {
+                out.write("[]".getBytes(StandardCharsets.UTF_8));
+            }
+            return;
+        }
+
+        Period period = Period.ofDays(startDate, endDate);
+        try (Stream<TransactionDTO> rows = transactionEntryRepository.streamByUserIdAndCreationDateRange(userId,
+                period.start(), period.end())) {
+            Iterator<TransactionDTO> iterator = rows.iterator();
+            if (ndjson) {
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+                return;
+            }
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
             }
         }
-        return Collections.emptyList();
     }
 
-    private MonthSummaryDTO createSummaryForMonth(YearMonth month, Long userId) {
-        List<Transaction> transactions = transactionRepository.findByYearAndMonth(month.getYear(),
-                month.getMonthValue(), userId);
-        List<MonthlyPlanning> plannings = monthlyPlanningRepository.findByYearAndMonthAndUserId(month.getYear(),
-                month.getMonthValue(), userId);
+    private Map<YearMonth, MonthSummaryDTO> cachedSummariesForWindow(YearMonth from, YearMonth to, Long userId) {
+        return summaryTimer.record(() -> userScopedCache.get(UserScopedCache.DASHBOARD, userId, List.of(from, to),
+                () -> createSummariesForWindow(from, to, userId)));
+    }
 
-        BigDecimal totalIncome = transactions.stream()
-                .filter(t -> t.getTransactionType() == TransactionType.ENTRADA)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Builds one summary per month in [from, to] from three grouped queries,
+     * over the monthly transaction aggregates, the installments expanded from
+     * plans and the plannings, regardless of the window size.
+     */
+    private Map<YearMonth, MonthSummaryDTO> createSummariesForWindow(YearMonth from, YearMonth to, Long userId) {
+        Period period = Period.ofMonths(from, to);
+        List<MonthlyTypeTotal> transactionTotals = Stream.concat(
+                monthlyAggregateRepository.sumByMonthAndType(userId, toKey(from), toKey(to)).stream(),
+                transactionEntryRepository.sumInstallmentsByMonthAndType(userId, period.start(), period.end())
+                        .stream())
+                .toList();
+        List<MonthlyPlannedTotal> plannedTotals = monthlyPlanningRepository.sumEstimatedAmountByMonth(userId,
+                from.getYear(), to.getYear(), toKey(from), toKey(to));
+        return summarize(from, to, transactionTotals, plannedTotals);
+    }
 
-        BigDecimal totalSpent = transactions.stream()
-                .filter(t -> t.getTransactionType() == TransactionType.SAIDA)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Folds the grouped totals into one summary per month in [from, to],
+     * with zeros for months that have no rows.
+     */
+    static Map<YearMonth, MonthSummaryDTO> summarize(YearMonth from, YearMonth to,
+            List<MonthlyTypeTotal> transactionTotals, List<MonthlyPlannedTotal> plannedTotals) {
+        Map<Integer, BigDecimal> income = new HashMap<>();
+        Map<Integer, BigDecimal> spent = new HashMap<>();
+        for (MonthlyTypeTotal total : transactionTotals) {
+            if (total.getTransactionType() == TransactionType.ENTRADA) {
+                income.merge(total.getYearMonth(), total.getTotal(), BigDecimal::add);
+            } else if (total.getTransactionType() == TransactionType.SAIDA) {
+                spent.merge(total.getYearMonth(), total.getTotal(), BigDecimal::add);
+            }
+        }
 
-        BigDecimal plannedBudget = plannings.stream()
-                .map(MonthlyPlanning::getPlannedValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<Integer, BigDecimal> planned = new HashMap<>();
+        for (MonthlyPlannedTotal total : plannedTotals) {
+            if (total.getTotal() != null) {
+                planned.merge(total.getYearMonth(), total.getTotal(), BigDecimal::add);
+            }
+        }
 
-        String title = month.format(DateTimeFormatter.ofPattern("yyyy-MMMM"));
+        DateTimeFormatter titleFormat = DateTimeFormatter.ofPattern("yyyy-MMMM");
+        Map<YearMonth, MonthSummaryDTO> summaries = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            int key = toKey(month);
+            summaries.put(month, new MonthSummaryDTO(month.format(titleFormat),
+                    spent.getOrDefault(key, BigDecimal.ZERO),
+                    income.getOrDefault(key, BigDecimal.ZERO),
+                    planned.getOrDefault(key, BigDecimal.ZERO)));
+        }
+        return summaries;
+    }
 
-        return new MonthSummaryDTO(title, totalSpent, totalIncome, plannedBudget);
+    private static int toKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
     }
-}
\ No newline at end of file
+}
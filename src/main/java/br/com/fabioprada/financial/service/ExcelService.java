@@ -1,26 +1,41 @@
 package br.com.fabioprada.financial.service;
 
+import br.com.fabioprada.financial.dto.TransactionDTO;
 import br.com.fabioprada.financial.model.Account;
 import br.com.fabioprada.financial.model.Category;
 import br.com.fabioprada.financial.model.Transaction;
 import br.com.fabioprada.financial.model.TransactionType;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ExcelService {
 
+    private static final Logger log = LoggerFactory.getLogger(ExcelService.class);
+
     public static String TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
     // Transactions Constants
@@ -32,11 +47,22 @@ public class ExcelService {
     static String[] PLANNING_HEADERS = { "Mês", "Ano", "Categoria", "Valor Estimado" };
     static String PLANNING_SHEET = "Planejamento";
 
-    public ByteArrayInputStream exportToExcel(List<Transaction> transactions,
-            List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings) {
-
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
+    // Rows kept in memory while exporting
+    static final int EXPORT_ROW_WINDOW = 100;
+
+    /**
+     * Writes the export workbook straight to {@code out}. Only the last
+     * {@link #EXPORT_ROW_WINDOW} rows are kept in memory; older rows are flushed
+     * to compressed temporary files until the workbook is written.
+     * {@code onRowWritten} is called once a transaction's row has been created.
+     */
+    public void exportToExcel(Stream<TransactionDTO> transactions,
+            List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings, OutputStream out,
+            Consumer<TransactionDTO> onRowWritten) {
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
             // --- Transactions Sheet ---
             Sheet transSheet = workbook.createSheet(TRANSACTIONS_SHEET);
             Row transHeaderRow = transSheet.createRow(0);
@@ -46,7 +72,9 @@ public class ExcelService {
             }
 
             int transRowIdx = 1;
-            for (Transaction transaction : transactions) {
+            Iterator<TransactionDTO> rows = transactions.iterator();
+            while (rows.hasNext()) {
+                TransactionDTO transaction = rows.next();
                 Row row = transSheet.createRow(transRowIdx++);
                 row.createCell(0).setCellValue(transaction.getName());
                 row.createCell(1).setCellValue(transaction.getCreationDate().toString());
@@ -64,6 +92,8 @@ public class ExcelService {
                 if (transaction.getInAccount() != null) {
                     row.createCell(6).setCellValue(transaction.getInAccount().getName());
                 }
+
+                onRowWritten.accept(transaction);
             }
 
             // --- Planning Sheet ---
@@ -88,9 +118,10 @@ public class ExcelService {
             }
 
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
         } catch (IOException e) {
-            throw new RuntimeException("fail to import data to Excel file: " + e.getMessage());
+            throw new RuntimeException("fail to export data to Excel file: " + e.getMessage());
+        } finally {
+            workbook.dispose();
         }
     }
 
@@ -99,84 +130,153 @@ public class ExcelService {
         List<Transaction> transactions = new ArrayList<>();
         List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings = new ArrayList<>();
 
+        importData(is, transactions::add, plannings::add);
+
+        data.setTransactions(transactions);
+        data.setMonthlyPlannings(plannings);
+        return data;
+    }
+
+    /**
+     * Streams the rows of an XLSX upload to the given consumers without
+     * building the workbook in memory. The upload is spooled to a temporary
+     * file, sheets are recognised from their header row alone, and only the
+     * chosen transaction and planning sheets are read in full.
+     */
+    public void importData(InputStream is, Consumer<Transaction> transactionConsumer,
+            Consumer<br.com.fabioprada.financial.model.MonthlyPlanning> planningConsumer) {
+        Path file = null;
         try {
-            Workbook workbook = new XSSFWorkbook(is);
-
-            // --- Import Transactions ---
-            Sheet transSheet = null;
-            // First try finding by name
-            Sheet sheetByName = workbook.getSheet(TRANSACTIONS_SHEET);
-            if (sheetByName != null && isTransactionSheet(sheetByName)) {
-                transSheet = sheetByName;
-            } else {
-                // Iterate through sheets to find one that matches structure
-                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                    Sheet s = workbook.getSheetAt(i);
-                    if (isTransactionSheet(s)) {
-                        transSheet = s;
-                        break;
-                    }
+            file = Files.createTempFile("import-", ".xlsx");
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+            importData(file, transactionConsumer, planningConsumer);
+        } catch (IOException e) {
+            throw new RuntimeException("fail to parse Excel file: " + e.getMessage(), e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // temp file is left for the OS to clean up
                 }
             }
+        }
+    }
 
-            if (transSheet != null) {
-                System.out.println("Processing transactions from sheet: " + transSheet.getSheetName());
-                transactions = parseTransactions(transSheet);
-                System.out.println("Parsed " + transactions.size() + " transactions.");
-            } else {
-                System.out.println("No valid Transactions sheet found.");
+    /**
+     * Receives a parsed row with the name of its sheet and its 1-based row
+     * number, as spreadsheet applications show it.
+     */
+    @FunctionalInterface
+    public interface RowConsumer<T> {
+        void accept(String sheet, int rowNumber, T row);
+    }
+
+    /**
+     * Streams the rows of an XLSX file already on disk, emitting transactions
+     * and plannings in the same order on every call.
+     */
+    public void importData(Path file, Consumer<Transaction> transactionConsumer,
+            Consumer<br.com.fabioprada.financial.model.MonthlyPlanning> planningConsumer) {
+        importRows(file, (sheet, rowNumber, transaction) -> transactionConsumer.accept(transaction),
+                (sheet, rowNumber, planning) -> planningConsumer.accept(planning));
+    }
+
+    /**
+     * Same as {@link #importData(Path, Consumer, Consumer)}, also telling
+     * where each row came from so it can be reported back to the user.
+     */
+    public void importRows(Path file, RowConsumer<Transaction> transactionConsumer,
+            RowConsumer<br.com.fabioprada.financial.model.MonthlyPlanning> planningConsumer) {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XlsxSheetReader sheetReader = new XlsxSheetReader(new ReadOnlySharedStringsTable(pkg),
+                    reader.getStylesTable());
+
+            // --- Detect sheets from their header rows ---
+            List<String> sheetNames = new ArrayList<>();
+            List<List<XlsxSheetReader.SheetCell>> headers = new ArrayList<>();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    List<XlsxSheetReader.SheetCell> header = new ArrayList<>();
+                    sheetReader.read(sheet, (rowIndex, cells) -> {
+                        if (rowIndex == 0) {
+                            header.addAll(cells);
+                        }
+                        return false;
+                    });
+                    sheetNames.add(sheets.getSheetName());
+                    headers.add(header);
+                }
             }
 
-            // --- Import Planning ---
-            Sheet planSheet = null;
-            // First try finding by name
-            sheetByName = workbook.getSheet(PLANNING_SHEET);
-            if (sheetByName != null && isPlanningSheet(sheetByName)) {
-                planSheet = sheetByName;
-            } else {
-                // Iterate through sheets to find one that matches structure
-                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                    Sheet s = workbook.getSheetAt(i);
-                    // Avoid re-processing the same sheet if it was already identified as
-                    // transactions
-                    // strictly speaking we could have a sheet that satisfies both if headers
-                    // overlap, but unlikely here.
-                    if (s == transSheet)
-                        continue;
-
-                    if (isPlanningSheet(s)) {
-                        planSheet = s;
+            int transSheet = sheetNames.indexOf(TRANSACTIONS_SHEET);
+            if (transSheet < 0 || !isTransactionSheet(headers.get(transSheet))) {
+                transSheet = -1;
+                for (int i = 0; i < headers.size(); i++) {
+                    if (isTransactionSheet(headers.get(i))) {
+                        transSheet = i;
                         break;
                     }
                 }
             }
 
-            if (planSheet != null) {
-                System.out.println("Processing planning from sheet: " + planSheet.getSheetName());
-                plannings = parsePlanning(planSheet);
-                System.out.println("Parsed " + plannings.size() + " planning items.");
-            } else {
-                System.out.println("No valid Planning sheet found.");
+            int planSheet = sheetNames.indexOf(PLANNING_SHEET);
+            if (planSheet < 0 || !isPlanningSheet(headers.get(planSheet))) {
+                planSheet = -1;
+                for (int i = 0; i < headers.size(); i++) {
+                    if (i != transSheet && isPlanningSheet(headers.get(i))) {
+                        planSheet = i;
+                        break;
+                    }
+                }
             }
 
-            workbook.close();
+            // --- Stream the chosen sheets ---
+            int[] parsed = new int[2];
+            sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                try (InputStream sheet = sheets.next()) {
+                    String sheetName = sheetNames.get(i);
+                    if (i == transSheet) {
+                        log.debug("Processing transactions from sheet {}", sheetName);
+                        sheetReader.read(sheet, (rowIndex, cells) -> {
+                            Transaction transaction = parseTransaction(rowIndex, cells);
+                            if (transaction != null) {
+                                transactionConsumer.accept(sheetName, rowIndex + 1, transaction);
+                                parsed[0]++;
+                            }
+                            return true;
+                        });
+                    } else if (i == planSheet) {
+                        log.debug("Processing planning from sheet {}", sheetName);
+                        sheetReader.read(sheet, (rowIndex, cells) -> {
+                            br.com.fabioprada.financial.model.MonthlyPlanning planning = parsePlanning(rowIndex,
+                                    cells);
+                            if (planning != null) {
+                                planningConsumer.accept(sheetName, rowIndex + 1, planning);
+                                parsed[1]++;
+                            }
+                            return true;
+                        });
+                    }
+                }
+            }
 
-            data.setTransactions(transactions);
-            data.setMonthlyPlannings(plannings);
-            return data;
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("fail to parse Excel file: " + e.getMessage());
+            if (transSheet < 0) {
+                log.info("No transactions sheet found in {}", file.getFileName());
+            }
+            if (planSheet < 0) {
+                log.info("No planning sheet found in {}", file.getFileName());
+            }
+            log.debug("Parsed {} transactions and {} plannings from {}", parsed[0], parsed[1], file.getFileName());
+        } catch (IOException | OpenXML4JException | SAXException e) {
+            throw new RuntimeException("fail to parse Excel file: " + e.getMessage(), e);
         }
     }
 
-    private boolean isTransactionSheet(Sheet sheet) {
-        if (sheet == null)
-            return false;
-        Row header = sheet.getRow(0);
-        if (header == null)
-            return false;
-
+    private boolean isTransactionSheet(List<XlsxSheetReader.SheetCell> header) {
         // Check for key columns for Transactions: "Nome", "Data", "Valor", "Tipo"
         // We look for at least a subset of critical columns to be considered a
         // transaction sheet
@@ -184,7 +284,7 @@ public class ExcelService {
         boolean hasDate = false;
         boolean hasAmount = false;
 
-        for (Cell cell : header) {
+        for (XlsxSheetReader.SheetCell cell : header) {
             String val = getCellValueAsString(cell).trim();
             if ("Nome".equalsIgnoreCase(val))
                 hasName = true;
@@ -197,13 +297,7 @@ public class ExcelService {
         return hasName && hasDate && hasAmount;
     }
 
-    private boolean isPlanningSheet(Sheet sheet) {
-        if (sheet == null)
-            return false;
-        Row header = sheet.getRow(0);
-        if (header == null)
-            return false;
-
+    private boolean isPlanningSheet(List<XlsxSheetReader.SheetCell> header) {
         // Check for key columns for Planning: "Mês", "Ano", "Categoria", "Valor
         // Estimado"
         boolean hasMonth = false;
@@ -211,7 +305,7 @@ public class ExcelService {
         boolean hasCategory = false;
         boolean hasEstimated = false; // "Valor Estimado"
 
-        for (Cell cell : header) {
+        for (XlsxSheetReader.SheetCell cell : header) {
             String val = getCellValueAsString(cell).trim();
             if ("Mês".equalsIgnoreCase(val) || "Mes".equalsIgnoreCase(val))
                 hasMonth = true;
@@ -226,179 +320,159 @@ public class ExcelService {
         return hasMonth && hasYear && hasCategory && hasEstimated;
     }
 
-    private List<Transaction> parseTransactions(Sheet sheet) {
-        List<Transaction> transactions = new ArrayList<>();
-        Iterator<Row> rows = sheet.iterator();
-        int rowNumber = 0;
-        while (rows.hasNext()) {
-            Row currentRow = rows.next();
-            if (rowNumber == 0) {
-                rowNumber++;
-                continue;
-            } // Skip header
-
-            // Skip empty rows
-            if (currentRow.getCell(0) == null && currentRow.getCell(2) == null)
-                continue;
-
-            Transaction transaction = new Transaction();
-
-            Cell nameCell = currentRow.getCell(0);
-            if (nameCell != null)
-                transaction.setName(getCellValueAsString(nameCell));
-
-            Cell dateCell = currentRow.getCell(1);
-            if (dateCell != null) {
-                String dateStr = getCellValueAsString(dateCell);
-                try {
-                    if (dateCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(dateCell)) {
-                        transaction.setCreationDate(dateCell.getLocalDateTimeCellValue().toLocalDate());
-                    } else {
-                        transaction.setCreationDate(LocalDate.parse(dateStr));
-                    }
-                } catch (Exception e) {
-                    // ignore date error or log
-                }
-            }
+    private Transaction parseTransaction(int rowIndex, List<XlsxSheetReader.SheetCell> cells) {
+        if (rowIndex == 0)
+            return null; // Skip header
 
-            Cell amountCell = currentRow.getCell(2);
-            if (amountCell != null) {
-                if (amountCell.getCellType() == CellType.NUMERIC) {
-                    transaction.setAmount(BigDecimal.valueOf(amountCell.getNumericCellValue()));
+        // Skip empty rows
+        if (getCell(cells, 0) == null && getCell(cells, 2) == null)
+            return null;
+
+        Transaction transaction = new Transaction();
+
+        XlsxSheetReader.SheetCell nameCell = getCell(cells, 0);
+        if (nameCell != null)
+            transaction.setName(getCellValueAsString(nameCell));
+
+        XlsxSheetReader.SheetCell dateCell = getCell(cells, 1);
+        if (dateCell != null) {
+            String dateStr = getCellValueAsString(dateCell);
+            try {
+                if (dateCell.isNumeric() && dateCell.date()) {
+                    transaction.setCreationDate(DateUtil.getLocalDateTime(dateCell.number()).toLocalDate());
                 } else {
-                    try {
-                        transaction.setAmount(new BigDecimal(getCellValueAsString(amountCell)));
-                    } catch (NumberFormatException e) {
-                        // ignore
-                    }
+                    transaction.setCreationDate(LocalDate.parse(dateStr));
                 }
+            } catch (Exception e) {
+                // ignore date error or log
             }
+        }
 
-            Cell typeCell = currentRow.getCell(3);
-            if (typeCell != null) {
+        XlsxSheetReader.SheetCell amountCell = getCell(cells, 2);
+        if (amountCell != null) {
+            if (amountCell.isNumeric()) {
+                transaction.setAmount(BigDecimal.valueOf(amountCell.number()));
+            } else {
                 try {
-                    transaction.setTransactionType(TransactionType.valueOf(getCellValueAsString(typeCell)));
-                } catch (IllegalArgumentException e) {
+                    transaction.setAmount(new BigDecimal(getCellValueAsString(amountCell)));
+                } catch (NumberFormatException e) {
                     // ignore
                 }
             }
+        }
 
-            Cell categoryCell = currentRow.getCell(4);
-            if (categoryCell != null) {
-                String catName = getCellValueAsString(categoryCell);
-                if (!catName.isEmpty()) {
-                    Category c = new Category();
-                    c.setName(catName);
-                    transaction.setCategory(c);
-                }
+        XlsxSheetReader.SheetCell typeCell = getCell(cells, 3);
+        if (typeCell != null) {
+            try {
+                transaction.setTransactionType(TransactionType.valueOf(getCellValueAsString(typeCell)));
+            } catch (IllegalArgumentException e) {
+                // ignore
             }
+        }
 
-            Cell outCell = currentRow.getCell(5);
-            if (outCell != null) {
-                String outName = getCellValueAsString(outCell);
-                if (!outName.isEmpty()) {
-                    Account a = new Account();
-                    a.setName(outName);
-                    transaction.setOutAccount(a);
-                }
+        XlsxSheetReader.SheetCell categoryCell = getCell(cells, 4);
+        if (categoryCell != null) {
+            String catName = getCellValueAsString(categoryCell);
+            if (!catName.isEmpty()) {
+                Category c = new Category();
+                c.setName(catName);
+                transaction.setCategory(c);
             }
+        }
 
-            Cell inCell = currentRow.getCell(6);
-            if (inCell != null) {
-                String inName = getCellValueAsString(inCell);
-                if (!inName.isEmpty()) {
-                    Account a = new Account();
-                    a.setName(inName);
-                    transaction.setInAccount(a);
-                }
+        XlsxSheetReader.SheetCell outCell = getCell(cells, 5);
+        if (outCell != null) {
+            String outName = getCellValueAsString(outCell);
+            if (!outName.isEmpty()) {
+                Account a = new Account();
+                a.setName(outName);
+                transaction.setOutAccount(a);
             }
+        }
 
-            // Basic validation to add only fully formed transactions if needed
-            if (transaction.getName() != null && transaction.getAmount() != null) {
-                transactions.add(transaction);
+        XlsxSheetReader.SheetCell inCell = getCell(cells, 6);
+        if (inCell != null) {
+            String inName = getCellValueAsString(inCell);
+            if (!inName.isEmpty()) {
+                Account a = new Account();
+                a.setName(inName);
+                transaction.setInAccount(a);
             }
         }
-        return transactions;
+
+        // Basic validation to add only fully formed transactions if needed
+        if (transaction.getName() != null && transaction.getAmount() != null) {
+            return transaction;
+        }
+        return null;
     }
 
-    private List<br.com.fabioprada.financial.model.MonthlyPlanning> parsePlanning(Sheet sheet) {
-        List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings = new ArrayList<>();
-        Iterator<Row> rows = sheet.iterator();
-        int rowNumber = 0;
-        while (rows.hasNext()) {
-            Row currentRow = rows.next();
-            if (rowNumber == 0) {
-                rowNumber++;
-                continue;
-            }
+    private br.com.fabioprada.financial.model.MonthlyPlanning parsePlanning(int rowIndex,
+            List<XlsxSheetReader.SheetCell> cells) {
+        if (rowIndex == 0)
+            return null;
 
-            // Skip empty rows
-            if (currentRow.getCell(2) == null && currentRow.getCell(3) == null)
-                continue;
+        // Skip empty rows
+        if (getCell(cells, 2) == null && getCell(cells, 3) == null)
+            return null;
 
-            br.com.fabioprada.financial.model.MonthlyPlanning mp = new br.com.fabioprada.financial.model.MonthlyPlanning();
+        br.com.fabioprada.financial.model.MonthlyPlanning mp = new br.com.fabioprada.financial.model.MonthlyPlanning();
 
-            // Month
-            Cell monthCell = currentRow.getCell(0);
-            if (monthCell != null) {
-                try {
-                    mp.setMonth((int) Double.parseDouble(getCellValueAsString(monthCell)));
-                } catch (NumberFormatException e) {
-                }
+        // Month
+        XlsxSheetReader.SheetCell monthCell = getCell(cells, 0);
+        if (monthCell != null) {
+            try {
+                mp.setMonth((int) Double.parseDouble(getCellValueAsString(monthCell)));
+            } catch (NumberFormatException e) {
             }
+        }
 
-            // Year
-            Cell yearCell = currentRow.getCell(1);
-            if (yearCell != null) {
-                try {
-                    mp.setYear((int) Double.parseDouble(getCellValueAsString(yearCell)));
-                } catch (NumberFormatException e) {
-                }
+        // Year
+        XlsxSheetReader.SheetCell yearCell = getCell(cells, 1);
+        if (yearCell != null) {
+            try {
+                mp.setYear((int) Double.parseDouble(getCellValueAsString(yearCell)));
+            } catch (NumberFormatException e) {
             }
+        }
 
-            // Category
-            Cell catCell = currentRow.getCell(2);
-            if (catCell != null) {
-                String catName = getCellValueAsString(catCell);
-                if (!catName.isEmpty()) {
-                    Category c = new Category();
-                    c.setName(catName);
-                    mp.setCategory(c);
-                }
+        // Category
+        XlsxSheetReader.SheetCell catCell = getCell(cells, 2);
+        if (catCell != null) {
+            String catName = getCellValueAsString(catCell);
+            if (!catName.isEmpty()) {
+                Category c = new Category();
+                c.setName(catName);
+                mp.setCategory(c);
             }
+        }
 
-            // Estimated Amount
-            Cell amountCell = currentRow.getCell(3);
-            if (amountCell != null) {
-                if (amountCell.getCellType() == CellType.NUMERIC) {
-                    mp.setEstimatedAmount(BigDecimal.valueOf(amountCell.getNumericCellValue()));
-                } else {
-                    try {
-                        mp.setEstimatedAmount(new BigDecimal(getCellValueAsString(amountCell)));
-                    } catch (NumberFormatException e) {
-                    }
+        // Estimated Amount
+        XlsxSheetReader.SheetCell amountCell = getCell(cells, 3);
+        if (amountCell != null) {
+            if (amountCell.isNumeric()) {
+                mp.setEstimatedAmount(BigDecimal.valueOf(amountCell.number()));
+            } else {
+                try {
+                    mp.setEstimatedAmount(new BigDecimal(getCellValueAsString(amountCell)));
+                } catch (NumberFormatException e) {
                 }
             }
+        }
 
-            if (mp.getMonth() > 0 && mp.getYear() > 0 && mp.getEstimatedAmount() != null) {
-                plannings.add(mp);
-            }
+        if (mp.getMonth() > 0 && mp.getYear() > 0 && mp.getEstimatedAmount() != null) {
+            return mp;
         }
-        return plannings;
+        return null;
+    }
+
+    private XlsxSheetReader.SheetCell getCell(List<XlsxSheetReader.SheetCell> cells, int column) {
+        return column < cells.size() ? cells.get(column) : null;
     }
 
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(XlsxSheetReader.SheetCell cell) {
         if (cell == null)
             return "";
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
-        }
+        return cell.asString();
     }
 }
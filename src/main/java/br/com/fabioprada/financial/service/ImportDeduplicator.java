@@ -0,0 +1,157 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.dto.FingerprintCount;
+import br.com.fabioprada.financial.dto.PlanningSlot;
+import br.com.fabioprada.financial.model.MonthlyPlanning;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.repository.MonthlyPlanningRepository;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops rows of a single import that the user already has, comparing content
+ * fingerprints in one query per chunk. Installments expanded from plans count
+ * as rows the user has, so re-importing an export does not store them a
+ * second time. Fingerprints are counted rather than
+ * just tested, so identical rows that legitimately repeat in a file are kept
+ * as long as there are more of them in the file than in the database.
+ * Plannings are unique per month and category, so a planning is dropped when
+ * the user already has one for its slot, whatever its amount.
+ * Bookkeeping since the last {@link #commit()} is undone by
+ * {@link #rollback()} when its database transaction fails.
+ */
+class ImportDeduplicator {
+
+    private final Long userId;
+    private final TransactionRepository transactionRepository;
+    private final TransactionEntryRepository transactionEntryRepository;
+    private final MonthlyPlanningRepository monthlyPlanningRepository;
+
+    // Rows inserted by this import, which the database counts also include
+    private final Map<String, Long> inserted = new HashMap<>();
+
+    private final List<String> pendingInserted = new ArrayList<>();
+
+    private long skipped;
+    private long pendingSkipped;
+
+    ImportDeduplicator(Long userId, TransactionRepository transactionRepository,
+            TransactionEntryRepository transactionEntryRepository,
+            MonthlyPlanningRepository monthlyPlanningRepository) {
+        this.userId = userId;
+        this.transactionRepository = transactionRepository;
+        this.transactionEntryRepository = transactionEntryRepository;
+        this.monthlyPlanningRepository = monthlyPlanningRepository;
+    }
+
+    /**
+     * Returns the resolved rows that are not in the database yet.
+     */
+    List<Transaction> removeExisting(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+
+        Set<String> fingerprints = new LinkedHashSet<>();
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Transaction transaction : transactions) {
+            transaction.updateFingerprint();
+            fingerprints.add(transaction.getFingerprint());
+            LocalDate date = transaction.getCreationDate();
+            if (date != null) {
+                first = first == null || date.isBefore(first) ? date : first;
+                last = last == null || date.isAfter(last) ? date : last;
+            }
+        }
+
+        // Only stored rows can have been inserted by this import
+        Map<String, Long> existing = new HashMap<>();
+        for (FingerprintCount count : transactionRepository.countByFingerprints(userId, fingerprints)) {
+            existing.put(count.getFingerprint(), count.getTotal() - inserted.getOrDefault(count.getFingerprint(), 0L));
+        }
+        if (first != null) {
+            for (FingerprintCount count : transactionEntryRepository.countInstallmentsByFingerprints(userId,
+                    fingerprints, first, last.plusDays(1))) {
+                existing.merge(count.getFingerprint(), count.getTotal(), Long::sum);
+            }
+        }
+
+        List<Transaction> fresh = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            String fingerprint = transaction.getFingerprint();
+            long remaining = existing.getOrDefault(fingerprint, 0L);
+            if (remaining > 0) {
+                existing.put(fingerprint, remaining - 1);
+                skipped++;
+                pendingSkipped++;
+            } else {
+                inserted.merge(fingerprint, 1L, Long::sum);
+                pendingInserted.add(fingerprint);
+                fresh.add(transaction);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Returns the resolved plannings whose month and category the user has no
+     * planning for yet, keeping the first of any repeated in the chunk.
+     */
+    List<MonthlyPlanning> removeExistingPlannings(List<MonthlyPlanning> plannings) {
+        if (plannings.isEmpty()) {
+            return plannings;
+        }
+
+        Set<Integer> years = new HashSet<>();
+        for (MonthlyPlanning planning : plannings) {
+            years.add(planning.getYear());
+        }
+
+        Set<Slot> taken = new HashSet<>();
+        for (PlanningSlot slot : monthlyPlanningRepository.findSlotsByUserIdAndYearIn(userId, years)) {
+            taken.add(new Slot(slot.getYear(), slot.getMonth(), slot.getCategoryId()));
+        }
+
+        List<MonthlyPlanning> fresh = new ArrayList<>(plannings.size());
+        for (MonthlyPlanning planning : plannings) {
+            Long categoryId = planning.getCategory() != null ? planning.getCategory().getId() : null;
+            if (taken.add(new Slot(planning.getYear(), planning.getMonth(), categoryId))) {
+                fresh.add(planning);
+            } else {
+                skipped++;
+                pendingSkipped++;
+            }
+        }
+        return fresh;
+    }
+
+    long getSkipped() {
+        return skipped;
+    }
+
+    void commit() {
+        pendingInserted.clear();
+        pendingSkipped = 0;
+    }
+
+    void rollback() {
+        for (String fingerprint : pendingInserted) {
+            inserted.computeIfPresent(fingerprint, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        skipped -= pendingSkipped;
+        commit();
+    }
+
+    private record Slot(int year, int month, Long categoryId) {
+    }
+}
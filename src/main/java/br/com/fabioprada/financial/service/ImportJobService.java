@@ -0,0 +1,472 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.config.ImportJobProperties;
+import br.com.fabioprada.financial.dto.ImportJobDTO;
+import br.com.fabioprada.financial.dto.ImportRejectionDTO;
+import br.com.fabioprada.financial.exception.BadRequestException;
+import br.com.fabioprada.financial.model.ImportJob;
+import br.com.fabioprada.financial.model.ImportJobStatus;
+import br.com.fabioprada.financial.model.ImportRejection;
+import br.com.fabioprada.financial.model.MonthlyPlanning;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.ImportJobRepository;
+import br.com.fabioprada.financial.repository.ImportRejectionRepository;
+import br.com.fabioprada.financial.repository.MonthlyPlanningRepository;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.security.UserContextService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Runs spreadsheet imports in the background. Rows are committed in chunks
+ * together with the job's checkpoint, so a failure keeps every committed
+ * chunk and the job can be resumed from where it stopped. Rows the database
+ * refuses are rejected one by one instead of failing the job.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportRejectionRepository importRejectionRepository;
+    private final TransactionService transactionService;
+    private final ExcelService excelService;
+    private final CategoryRepository categoryRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionEntryRepository transactionEntryRepository;
+    private final MonthlyPlanningRepository monthlyPlanningRepository;
+    private final UserContextService userContextService;
+    private final ImportJobProperties importJobProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor importExecutor;
+    private final Counter importedRows;
+    private final Counter duplicateRows;
+    private final Counter rejectedRows;
+    private final Timer chunkTimer;
+
+    public ImportJobService(ImportJobRepository importJobRepository,
+            ImportRejectionRepository importRejectionRepository, TransactionService transactionService,
+            ExcelService excelService, CategoryRepository categoryRepository, AccountRepository accountRepository,
+            TransactionRepository transactionRepository, TransactionEntryRepository transactionEntryRepository,
+            MonthlyPlanningRepository monthlyPlanningRepository,
+            UserContextService userContextService, ImportJobProperties importJobProperties,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("importExecutor") TaskExecutor importExecutor, MeterRegistry meterRegistry) {
+        if (importJobProperties.getDirectory() == null || importJobProperties.getDirectory().isBlank()) {
+            throw new IllegalStateException("import-jobs.directory must point to persistent storage");
+        }
+        this.importJobRepository = importJobRepository;
+        this.importRejectionRepository = importRejectionRepository;
+        this.transactionService = transactionService;
+        this.excelService = excelService;
+        this.categoryRepository = categoryRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionEntryRepository = transactionEntryRepository;
+        this.monthlyPlanningRepository = monthlyPlanningRepository;
+        this.userContextService = userContextService;
+        this.importJobProperties = importJobProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.importExecutor = importExecutor;
+        // Rows per second is the rate of import.rows; rejected rows are invalid or refused by the database
+        this.importedRows = importRowsCounter(meterRegistry, "imported");
+        this.duplicateRows = importRowsCounter(meterRegistry, "duplicate");
+        this.rejectedRows = importRowsCounter(meterRegistry, "rejected");
+        this.chunkTimer = Timer.builder("import.chunk")
+                .description("Time to resolve, deduplicate and commit one chunk of imported rows")
+                .register(meterRegistry);
+    }
+
+    private static Counter importRowsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("import.rows").description("Spreadsheet rows processed by import jobs")
+                .tag("result", result).register(meterRegistry);
+    }
+
+    public ImportJobDTO submit(MultipartFile file) {
+        User user = userContextService.getCurrentUserOrThrow();
+        Path stored;
+        try {
+            Path directory = Paths.get(importJobProperties.getDirectory());
+            Files.createDirectories(directory);
+            stored = directory.resolve(UUID.randomUUID() + ".xlsx");
+            file.transferTo(stored);
+        } catch (IOException e) {
+            throw new RuntimeException("fail to store excel data: " + e.getMessage());
+        }
+
+        ImportJob job = new ImportJob();
+        job.setUser(user);
+        job.setFileName(file.getOriginalFilename() != null ? file.getOriginalFilename() : stored.toString());
+        job.setStoredPath(stored.toString());
+        job.setStatus(ImportJobStatus.PENDING);
+        job.setCreatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+
+        start(job.getId());
+        return ImportJobDTO.from(job);
+    }
+
+    public Optional<ImportJobDTO> findById(Long id) {
+        return userContextService.getCurrentUser()
+                .flatMap(user -> importJobRepository.findByIdAndUserId(id, user.getId()))
+                .map(ImportJobDTO::from);
+    }
+
+    /**
+     * Rows of a job that could not be imported, in file order.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<ImportRejectionDTO>> findRejections(Long id, Pageable pageable) {
+        return userContextService.getCurrentUser()
+                .flatMap(user -> importJobRepository.findByIdAndUserId(id, user.getId()))
+                .map(job -> importRejectionRepository.findByJobIdOrderById(job.getId(), pageable).stream()
+                        .map(ImportRejectionDTO::from)
+                        .toList());
+    }
+
+    /**
+     * Restarts a failed job from its last committed chunk.
+     */
+    public Optional<ImportJobDTO> resume(Long id) {
+        User user = userContextService.getCurrentUserOrThrow();
+        return importJobRepository.findByIdAndUserId(id, user.getId()).map(job -> {
+            Integer resumed = transactionTemplate.execute(status -> importJobRepository.markFailedAsPending(id));
+            if (resumed == null || resumed == 0) {
+                throw new BadRequestException("Only failed import jobs can be resumed");
+            }
+            ImportJob pending = importJobRepository.findById(id).orElseThrow();
+            start(id);
+            return ImportJobDTO.from(pending);
+        });
+    }
+
+    /**
+     * Marks jobs that were pending or running when the application stopped as
+     * failed, so they can be resumed.
+     */
+    @Transactional
+    public int failInterruptedJobs() {
+        return importJobRepository.failInterruptedJobs();
+    }
+
+    /**
+     * Deletes the uploaded files of jobs that failed longer than
+     * {@code import-jobs.retention} ago without being resumed, and marks them
+     * as expired. Returns how many jobs expired.
+     */
+    @Scheduled(cron = "${import-jobs.cleanup-cron:0 0 3 * * *}")
+    public int expireFailedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(importJobProperties.getRetention());
+        List<ImportJob> expired = transactionTemplate.execute(status -> {
+            List<ImportJob> jobs = importJobRepository.findByStatusAndFinishedAtBefore(ImportJobStatus.FAILED,
+                    cutoff);
+            jobs.forEach(job -> job.setStatus(ImportJobStatus.EXPIRED));
+            return jobs;
+        });
+        for (ImportJob job : expired) {
+            deleteStoredFile(job);
+        }
+        return expired.size();
+    }
+
+    private void start(Long jobId) {
+        importExecutor.execute(() -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        ImportJob job = null;
+        try {
+            job = transactionTemplate.execute(status -> {
+                ImportJob running = importJobRepository.findById(jobId).orElseThrow();
+                running.setStatus(ImportJobStatus.RUNNING);
+                running.setStartedAt(LocalDateTime.now());
+                running.setResumedFromRow(running.getProcessedRows());
+                return running;
+            });
+
+            // Rows are counted by the same pass that imports them; the total is known once it ends
+            ChunkWriter writer = new ChunkWriter(job);
+            excelService.importRows(Paths.get(job.getStoredPath()), writer::add, writer::add);
+            writer.flush();
+
+            long skippedRows = writer.skippedRows();
+            job.setTotalRows(writer.seenRows);
+            job.setProcessedRows(writer.processedRows);
+            job.setSkippedRows(skippedRows);
+            job.setRejectedRows(writer.rejectedTotal);
+            job.setStatus(ImportJobStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            saveJob(job);
+            deleteStoredFile(job);
+            log.info("Import job {} completed: {} rows, {} already present, {} rejected", jobId,
+                    writer.processedRows, skippedRows, writer.rejectedTotal);
+        } catch (RuntimeException e) {
+            // The file is kept so the job can be resumed, until expireFailedJobs removes it
+            log.warn("Import job {} failed", jobId, e);
+            markFailed(jobId, job, e);
+        }
+    }
+
+    // Runs on the import executor, where nothing else would report the failure
+    private void markFailed(Long jobId, ImportJob job, RuntimeException cause) {
+        try {
+            ImportJob failed = importJobRepository.findById(jobId).orElse(job);
+            if (failed == null) {
+                log.warn("Import job {} no longer exists", jobId);
+                return;
+            }
+            failed.setStatus(ImportJobStatus.FAILED);
+            failed.setErrorMessage(abbreviate(cause.getMessage(), 1000));
+            failed.setFinishedAt(LocalDateTime.now());
+            saveJob(failed);
+        } catch (RuntimeException e) {
+            // Left pending; the next startup marks it as failed
+            log.error("Could not mark import job {} as failed", jobId, e);
+        }
+    }
+
+    private void saveJob(ImportJob job) {
+        transactionTemplate.executeWithoutResult(status -> importJobRepository.save(job));
+    }
+
+    private static void deleteStoredFile(ImportJob job) {
+        try {
+            Files.deleteIfExists(Paths.get(job.getStoredPath()));
+        } catch (IOException e) {
+            log.warn("Could not delete the upload of import job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private static String abbreviate(String message, int length) {
+        if (message == null) {
+            return "Import failed";
+        }
+        return message.length() > length ? message.substring(0, length) : message;
+    }
+
+    /**
+     * Whether the database refused the data itself (constraint, length or
+     * range), as opposed to being unavailable.
+     */
+    private static boolean isRowError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException
+                    || cause instanceof DataException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String invalidReason(Transaction transaction) {
+        if (transaction.getCreationDate() == null) {
+            return "Missing or invalid date";
+        }
+        if (transaction.getTransactionType() == null) {
+            return "Missing or invalid type";
+        }
+        if (transaction.getName().length() > 255) {
+            return "Name longer than 255 characters";
+        }
+        return null;
+    }
+
+    private static String invalidReason(MonthlyPlanning planning) {
+        if (planning.getMonth() < 1 || planning.getMonth() > 12) {
+            return "Month must be between 1 and 12";
+        }
+        return null;
+    }
+
+    private record PendingRow(String sheet, int rowNumber, Transaction transaction, MonthlyPlanning planning) {
+    }
+
+    /**
+     * Buffers parsed rows and commits them a chunk at a time, skipping the rows
+     * a previous run already committed. Invalid rows are rejected up front; if
+     * the database refuses a chunk, its rows are committed one by one and only
+     * the refused ones are rejected.
+     */
+    private class ChunkWriter {
+
+        private final ImportJob job;
+        private final ImportNameResolver resolver;
+        private final ImportDeduplicator deduplicator;
+        private final List<PendingRow> rows = new ArrayList<>();
+        private final List<ImportRejection> rejections = new ArrayList<>();
+
+        private long seenRows;
+        private long processedRows;
+        private long rejectedTotal;
+
+        ChunkWriter(ImportJob job) {
+            this.job = job;
+            this.resolver = new ImportNameResolver(job.getUser(), categoryRepository, accountRepository);
+            this.deduplicator = new ImportDeduplicator(job.getUser().getId(), transactionRepository,
+                    transactionEntryRepository, monthlyPlanningRepository);
+            this.processedRows = job.getProcessedRows();
+            this.rejectedTotal = job.getRejectedRows();
+        }
+
+        void add(String sheet, int rowNumber, Transaction transaction) {
+            if (seenRows++ >= processedRows) {
+                add(new PendingRow(sheet, rowNumber, transaction, null), invalidReason(transaction));
+            }
+        }
+
+        void add(String sheet, int rowNumber, MonthlyPlanning planning) {
+            if (seenRows++ >= processedRows) {
+                add(new PendingRow(sheet, rowNumber, null, planning), invalidReason(planning));
+            }
+        }
+
+        private void add(PendingRow row, String invalidReason) {
+            if (invalidReason != null) {
+                reject(row, invalidReason);
+            } else {
+                rows.add(row);
+            }
+            if (rows.size() + rejections.size() >= importJobProperties.getChunkSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty() && rejections.isEmpty()) {
+                return;
+            }
+            long chunkRows = rows.size() + rejections.size();
+            long checkpoint = processedRows + chunkRows;
+            long skippedBefore = deduplicator.getSkipped();
+            long rejectedBefore = rejectedTotal - rejections.size();
+            Timer.Sample sample = Timer.start();
+            try {
+                try {
+                    commit(rows, checkpoint);
+                } catch (RuntimeException e) {
+                    if (!isRowError(e)) {
+                        throw e;
+                    }
+                    rollback(rows);
+                    log.info("Import job {}: chunk before row {} refused, retrying its rows one by one",
+                            job.getId(), checkpoint);
+                    commitRowByRow(checkpoint);
+                }
+            } finally {
+                sample.stop(chunkTimer);
+            }
+            long duplicates = deduplicator.getSkipped() - skippedBefore;
+            long rejected = rejectedTotal - rejectedBefore;
+            importedRows.increment(chunkRows - duplicates - rejected);
+            duplicateRows.increment(duplicates);
+            rejectedRows.increment(rejected);
+            processedRows = checkpoint;
+            rows.clear();
+            rejections.clear();
+        }
+
+        /**
+         * Commits the rows; with a checkpoint, also the pending rejections and
+         * the job's progress, in the same database transaction.
+         */
+        private void commit(List<PendingRow> batch, Long checkpoint) {
+            List<Transaction> transactions = new ArrayList<>();
+            List<MonthlyPlanning> plannings = new ArrayList<>();
+            for (PendingRow row : batch) {
+                if (row.transaction() != null) {
+                    transactions.add(row.transaction());
+                } else {
+                    plannings.add(row.planning());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionService.importChunk(job.getUser(), resolver, deduplicator, transactions, plannings);
+                if (checkpoint != null) {
+                    saveProgress(checkpoint);
+                }
+            });
+            resolver.commit();
+            deduplicator.commit();
+        }
+
+        private void commitRowByRow(long checkpoint) {
+            for (PendingRow row : rows) {
+                try {
+                    commit(List.of(row), null);
+                } catch (RuntimeException e) {
+                    if (!isRowError(e)) {
+                        throw e;
+                    }
+                    rollback(List.of(row));
+                    reject(row, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+            // A crash before this point replays the chunk; committed rows are then skipped as duplicates
+            transactionTemplate.executeWithoutResult(status -> saveProgress(checkpoint));
+        }
+
+        private void saveProgress(long checkpoint) {
+            importRejectionRepository.saveAll(rejections);
+            importJobRepository.updateProgress(job.getId(), checkpoint, skippedRows(), rejectedTotal);
+        }
+
+        // Ids handed out by the rolled back transaction must not be reused on retry
+        private void rollback(List<PendingRow> batch) {
+            resolver.rollback();
+            deduplicator.rollback();
+            for (PendingRow row : batch) {
+                if (row.transaction() != null) {
+                    row.transaction().setId(null);
+                } else {
+                    row.planning().setId(null);
+                }
+            }
+        }
+
+        private void reject(PendingRow row, String reason) {
+            ImportRejection rejection = new ImportRejection();
+            rejection.setJob(job);
+            rejection.setSheet(row.sheet());
+            rejection.setRowNumber(row.rowNumber());
+            rejection.setReason(abbreviate(reason, 500));
+            rejections.add(rejection);
+            rejectedTotal++;
+        }
+
+        // Includes rows skipped by earlier runs of a resumed job
+        long skippedRows() {
+            return job.getSkippedRows() + deduplicator.getSkipped();
+        }
+    }
+}
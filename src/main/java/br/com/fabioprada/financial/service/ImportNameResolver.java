@@ -0,0 +1,144 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.MonthlyPlanning;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves category and account names for a single import. The user's
+ * categories and accounts are loaded once; names that do not exist yet are
+ * created together before the rows are linked, so every row is resolved from
+ * memory. Names created since the last {@link #commit()} are forgotten by
+ * {@link #rollback()} when their database transaction fails.
+ */
+class ImportNameResolver {
+
+    private final User user;
+    private final CategoryRepository categoryRepository;
+    private final AccountRepository accountRepository;
+
+    private final Map<String, Category> categories = new HashMap<>();
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final List<String> pendingCategories = new ArrayList<>();
+    private final List<String> pendingAccounts = new ArrayList<>();
+
+    ImportNameResolver(User user, CategoryRepository categoryRepository, AccountRepository accountRepository) {
+        this.user = user;
+        this.categoryRepository = categoryRepository;
+        this.accountRepository = accountRepository;
+
+        for (Category category : categoryRepository.findAllByUserId(user.getId())) {
+            categories.putIfAbsent(category.getName(), category);
+        }
+        for (Account account : accountRepository.findAllByUserId(user.getId())) {
+            accounts.putIfAbsent(account.getName(), account);
+        }
+    }
+
+    /**
+     * Creates, in one batch per entity type, every category and account named
+     * by these rows that the user does not have yet. Can be called once per
+     * chunk of a larger import.
+     */
+    void createMissing(Collection<Transaction> transactions, Collection<MonthlyPlanning> plannings) {
+        Map<String, Category> newCategories = new LinkedHashMap<>();
+        Map<String, Account> newAccounts = new LinkedHashMap<>();
+
+        for (Transaction transaction : transactions) {
+            addMissingCategory(nameOf(transaction.getCategory()), newCategories);
+            addMissingAccount(nameOf(transaction.getOutAccount()), newAccounts);
+            addMissingAccount(nameOf(transaction.getInAccount()), newAccounts);
+        }
+        for (MonthlyPlanning planning : plannings) {
+            addMissingCategory(nameOf(planning.getCategory()), newCategories);
+        }
+
+        if (!newCategories.isEmpty()) {
+            categoryRepository.saveAll(newCategories.values())
+                    .forEach(category -> categories.put(category.getName(), category));
+            pendingCategories.addAll(newCategories.keySet());
+        }
+        if (!newAccounts.isEmpty()) {
+            accountRepository.saveAll(newAccounts.values())
+                    .forEach(account -> accounts.put(account.getName(), account));
+            pendingAccounts.addAll(newAccounts.keySet());
+        }
+    }
+
+    void commit() {
+        pendingCategories.clear();
+        pendingAccounts.clear();
+    }
+
+    void rollback() {
+        pendingCategories.forEach(categories::remove);
+        pendingAccounts.forEach(accounts::remove);
+        commit();
+    }
+
+    /**
+     * Replaces the name-only category and accounts parsed from the file with
+     * the user's persisted ones.
+     */
+    void resolve(Transaction transaction) {
+        transaction.setUser(user);
+        if (nameOf(transaction.getCategory()) != null) {
+            transaction.setCategory(categories.get(transaction.getCategory().getName()));
+        }
+        if (nameOf(transaction.getOutAccount()) != null) {
+            transaction.setOutAccount(accounts.get(transaction.getOutAccount().getName()));
+        }
+        if (nameOf(transaction.getInAccount()) != null) {
+            transaction.setInAccount(accounts.get(transaction.getInAccount().getName()));
+        }
+    }
+
+    void resolve(MonthlyPlanning planning) {
+        planning.setUser(user);
+        if (nameOf(planning.getCategory()) != null) {
+            planning.setCategory(categories.get(planning.getCategory().getName()));
+        }
+    }
+
+    private void addMissingCategory(String name, Map<String, Category> newCategories) {
+        if (name == null || categories.containsKey(name) || newCategories.containsKey(name)) {
+            return;
+        }
+        Category category = new Category();
+        category.setName(name);
+        category.setUser(user);
+        newCategories.put(name, category);
+    }
+
+    private void addMissingAccount(String name, Map<String, Account> newAccounts) {
+        if (name == null || accounts.containsKey(name) || newAccounts.containsKey(name)) {
+            return;
+        }
+        Account account = new Account();
+        account.setName(name);
+        account.setUser(user);
+        account.setInitialBalance(BigDecimal.ZERO);
+        account.setCurrentBalance(BigDecimal.ZERO);
+        newAccounts.put(name, account);
+    }
+
+    private static String nameOf(Category category) {
+        return category != null ? category.getName() : null;
+    }
+
+    private static String nameOf(Account account) {
+        return account != null ? account.getName() : null;
+    }
+}
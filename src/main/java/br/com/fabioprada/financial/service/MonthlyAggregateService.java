@@ -0,0 +1,120 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.model.MonthlyAggregate;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.repository.MonthlyAggregateRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps {@code monthly_aggregates} in step with {@code transacoes}. Like
+ * {@link AccountBalanceService}, every change is an atomic upsert applied in
+ * the caller's database transaction, and reverts read the transaction's
+ * persisted state.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class MonthlyAggregateService {
+
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+
+    public MonthlyAggregateService(MonthlyAggregateRepository monthlyAggregateRepository) {
+        this.monthlyAggregateRepository = monthlyAggregateRepository;
+    }
+
+    public void apply(Transaction transaction) {
+        add(transaction.getUser().getId(), transaction.getCreationDate(), transaction.getTransactionType(),
+                transaction.getCategory() != null ? transaction.getCategory().getId() : null,
+                transaction.getAmount(), 1);
+    }
+
+    /**
+     * Applies a batch of new transactions with one upsert per touched
+     * aggregate row instead of one per transaction.
+     */
+    public void applyAll(Iterable<Transaction> transactions) {
+        Map<MonthlyAggregate.Key, BigDecimal> totals = new HashMap<>();
+        Map<MonthlyAggregate.Key, Long> counts = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getAmount() == null) {
+                continue;
+            }
+            MonthlyAggregate.Key key = key(transaction.getUser().getId(), transaction.getCreationDate(),
+                    transaction.getTransactionType(),
+                    transaction.getCategory() != null ? transaction.getCategory().getId() : null);
+            totals.merge(key, transaction.getAmount(), BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+        }
+        totals.forEach((key, total) -> monthlyAggregateRepository.add(key.getUserId(), key.getYearMonth(),
+                key.getCategoryId(), key.getTransactionType().name(), total, counts.get(key)));
+    }
+
+    public void revert(Transaction transaction) {
+        Transaction.PersistedState state = transaction.getPersistedState();
+        if (state != null && state.amount() != null && state.creationDate() != null
+                && state.transactionType() != null) {
+            MonthlyAggregate.Key key = key(transaction.getUser().getId(), state.creationDate(),
+                    state.transactionType(), state.categoryId());
+            monthlyAggregateRepository.add(key.getUserId(), key.getYearMonth(), key.getCategoryId(),
+                    key.getTransactionType().name(), state.amount().negate(), -1);
+            monthlyAggregateRepository.deleteIfEmpty(key.getUserId(), key.getYearMonth(), key.getCategoryId(),
+                    key.getTransactionType().name());
+        }
+    }
+
+    /**
+     * Reverts the given transactions of a user with a single grouped upsert,
+     * then drops the user's rows that no longer count any transaction. Must
+     * run before the rows are deleted.
+     */
+    public void revertAll(Long userId, Collection<Long> transactionIds) {
+        monthlyAggregateRepository.subtractTransactions(userId, transactionIds);
+        monthlyAggregateRepository.deleteEmptyOfUser(userId);
+    }
+
+    /**
+     * Adds the given transactions of a user, as currently stored, to their
+     * aggregates.
+     */
+    public void applyAll(Long userId, Collection<Long> transactionIds) {
+        monthlyAggregateRepository.addTransactions(userId, transactionIds);
+    }
+
+    /**
+     * Rebuilds every aggregate row from {@code transacoes}, returning how many
+     * rows were written.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public int rebuild() {
+        monthlyAggregateRepository.deleteAllAggregates();
+        return monthlyAggregateRepository.insertAllAggregates();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public boolean needsBackfill() {
+        return monthlyAggregateRepository.needsBackfill();
+    }
+
+    private void add(Long userId, LocalDate date, TransactionType type, Long categoryId, BigDecimal amount,
+            long count) {
+        if (amount == null || date == null || type == null) {
+            return;
+        }
+        MonthlyAggregate.Key key = key(userId, date, type, categoryId);
+        monthlyAggregateRepository.add(key.getUserId(), key.getYearMonth(), key.getCategoryId(),
+                key.getTransactionType().name(), amount, count);
+    }
+
+    private static MonthlyAggregate.Key key(Long userId, LocalDate date, TransactionType type, Long categoryId) {
+        return new MonthlyAggregate.Key(userId, date.getYear() * 100 + date.getMonthValue(),
+                categoryId != null ? categoryId : MonthlyAggregate.NO_CATEGORY, type);
+    }
+}
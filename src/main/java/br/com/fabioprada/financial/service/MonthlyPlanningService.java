@@ -1,15 +1,31 @@
 package br.com.fabioprada.financial.service;
 
+import br.com.fabioprada.financial.config.QueryCounter;
+import br.com.fabioprada.financial.dto.CategoryMonthlyTotal;
+import br.com.fabioprada.financial.dto.MonthlyPlanningDTO;
 import br.com.fabioprada.financial.model.MonthlyPlanning;
 import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.MonthlyAggregateRepository;
 import br.com.fabioprada.financial.repository.MonthlyPlanningRepository;
+import br.com.fabioprada.financial.repository.Period;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.domain.Page;
@@ -21,15 +37,26 @@ import org.springframework.data.jpa.domain.Specification;
 public class MonthlyPlanningService {
 
     private final MonthlyPlanningRepository monthlyPlanningRepository;
-    private final br.com.fabioprada.financial.repository.TransactionRepository transactionRepository;
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final TransactionEntryRepository transactionEntryRepository;
+    private final UserScopedCache userScopedCache;
+    private final DistributionSummary pageQueries;
 
     public MonthlyPlanningService(MonthlyPlanningRepository monthlyPlanningRepository,
-            br.com.fabioprada.financial.repository.TransactionRepository transactionRepository) {
+            MonthlyAggregateRepository monthlyAggregateRepository,
+            TransactionEntryRepository transactionEntryRepository, UserScopedCache userScopedCache,
+            MeterRegistry meterRegistry) {
         this.monthlyPlanningRepository = monthlyPlanningRepository;
-        this.transactionRepository = transactionRepository;
+        this.monthlyAggregateRepository = monthlyAggregateRepository;
+        this.transactionEntryRepository = transactionEntryRepository;
+        this.userScopedCache = userScopedCache;
+        this.pageQueries = DistributionSummary.builder("planning.page.queries")
+                .description("SQL statements run to build one planning page, 0 when cached")
+                .register(meterRegistry);
     }
 
-    public Page<MonthlyPlanning> findAll(Pageable pageable, Integer month, Integer year, Long categoryId) {
+    @Transactional(readOnly = true)
+    public Page<MonthlyPlanningDTO> findAll(Pageable pageable, Integer month, Integer year, Long categoryId) {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof User) {
             User user = (User) principal;
@@ -50,27 +77,66 @@ public class MonthlyPlanningService {
                     return p;
                 };
 
-                Page<MonthlyPlanning> page = monthlyPlanningRepository.findAll(spec, pageable);
-
-                return page.map(plan -> {
-                    if (plan.getCategory() != null) {
-                        java.math.BigDecimal spent = transactionRepository
-                                .sumAmountByCategoryIdAndYearAndMonthAndUserId(
-                                        plan.getCategory().getId(),
-                                        plan.getYear(),
-                                        plan.getMonth(),
-                                        userId);
-                        plan.setSpentAmount(spent != null ? spent : java.math.BigDecimal.ZERO);
-                    } else {
-                        plan.setSpentAmount(java.math.BigDecimal.ZERO);
-                    }
-                    return plan;
-                });
+                long queriesBefore = QueryCounter.current();
+                Page<MonthlyPlanningDTO> result = userScopedCache.get(UserScopedCache.PLANNINGS, userId,
+                        Arrays.asList(pageable, month, year, categoryId), () -> {
+                            Page<MonthlyPlanning> page = monthlyPlanningRepository.findAll(spec, pageable);
+                            fillSpentAmounts(page.getContent(), userId);
+                            return page.map(MonthlyPlanningDTO::from);
+                        });
+                pageQueries.record(QueryCounter.current() - queriesBefore);
+                return result;
             }
         }
         return Page.empty();
     }
 
+    /**
+     * Loads the spent amounts of a whole page with two grouped queries, over
+     * the monthly aggregates and the expanded installments of the page's
+     * categories and month span, then matches them in memory.
+     */
+    private void fillSpentAmounts(List<MonthlyPlanning> plannings, Long userId) {
+        Set<Long> categoryIds = new HashSet<>();
+        YearMonth first = null;
+        YearMonth last = null;
+        for (MonthlyPlanning plan : plannings) {
+            if (plan.getCategory() == null || plan.getMonth() < 1 || plan.getMonth() > 12) {
+                continue;
+            }
+            categoryIds.add(plan.getCategory().getId());
+            YearMonth month = YearMonth.of(plan.getYear(), plan.getMonth());
+            first = first == null || month.isBefore(first) ? month : first;
+            last = last == null || month.isAfter(last) ? month : last;
+        }
+
+        Map<Long, Map<Integer, BigDecimal>> spentByCategory = new HashMap<>();
+        if (!categoryIds.isEmpty()) {
+            for (CategoryMonthlyTotal total : monthlyAggregateRepository.sumSpentByCategoryAndMonth(userId,
+                    categoryIds, first.getYear() * 100 + first.getMonthValue(),
+                    last.getYear() * 100 + last.getMonthValue())) {
+                spentByCategory.computeIfAbsent(total.getCategoryId(), id -> new HashMap<>())
+                        .put(total.getYearMonth(), total.getTotal());
+            }
+            // Installments expanded from plans are not in the aggregates
+            Period period = Period.ofMonths(first, last);
+            for (CategoryMonthlyTotal total : transactionEntryRepository.sumSpentInstallmentsByCategoryAndMonth(
+                    userId, categoryIds, period.start(), period.end())) {
+                spentByCategory.computeIfAbsent(total.getCategoryId(), id -> new HashMap<>())
+                        .merge(total.getYearMonth(), total.getTotal(), BigDecimal::add);
+            }
+        }
+
+        for (MonthlyPlanning plan : plannings) {
+            BigDecimal spent = null;
+            if (plan.getCategory() != null) {
+                spent = spentByCategory.getOrDefault(plan.getCategory().getId(), Collections.emptyMap())
+                        .get(plan.getYear() * 100 + plan.getMonth());
+            }
+            plan.setSpentAmount(spent != null ? spent : BigDecimal.ZERO);
+        }
+    }
+
     public Optional<MonthlyPlanning> findById(Long id) {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof User) {
@@ -89,7 +155,9 @@ public class MonthlyPlanningService {
         if (principal instanceof User) {
             User user = (User) principal;
             monthlyPlanning.setUser(user);
-            return monthlyPlanningRepository.save(monthlyPlanning);
+            MonthlyPlanning saved = monthlyPlanningRepository.save(monthlyPlanning);
+            evictCaches(user.getId());
+            return saved;
         }
         throw new IllegalStateException("User not authenticated, cannot save monthly planning.");
     }
@@ -101,20 +169,30 @@ public class MonthlyPlanningService {
             Long userId = user.getId();
             if (userId != null) {
                 monthlyPlanningRepository.deleteByIdAndUserId(id, Objects.requireNonNull(userId));
+                evictCaches(userId);
             }
         }
     }
 
-    public void deleteMultiple(List<Long> ids) {
+    public int deleteMultiple(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof User) {
             User user = (User) principal;
             Long userId = user.getId();
             if (userId != null) {
-                for (Long id : ids) {
-                    monthlyPlanningRepository.deleteByIdAndUserId(id, Objects.requireNonNull(userId));
-                }
+                int deleted = monthlyPlanningRepository.deleteAllByIdInAndUserId(ids, userId);
+                evictCaches(userId);
+                return deleted;
             }
         }
+        return 0;
+    }
+
+    // The dashboard sums planned amounts
+    private void evictCaches(Long userId) {
+        userScopedCache.evict(userId, UserScopedCache.PLANNINGS, UserScopedCache.DASHBOARD);
     }
 }
\ No newline at end of file
@@ -1,68 +1,183 @@
 package br.com.fabioprada.financial.service;
 
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.InstallmentPlan;
 import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionEntry;
 import br.com.fabioprada.financial.model.TransactionType;
 import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
 import br.com.fabioprada.financial.repository.TransactionRepository;
 import br.com.fabioprada.financial.security.UserContextService;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.web.multipart.MultipartFile;
 import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.InstallmentPlanRepository;
 import br.com.fabioprada.financial.repository.AccountRepository;
-import br.com.fabioprada.financial.model.Category;
-import br.com.fabioprada.financial.model.Account;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import br.com.fabioprada.financial.dto.TransactionCursor;
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import br.com.fabioprada.financial.dto.TransactionSliceDTO;
+import br.com.fabioprada.financial.dto.UnlinkedInstallment;
+import br.com.fabioprada.financial.exception.BadRequestException;
+import java.io.OutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jakarta.persistence.EntityManager;
 
 @Service
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionEntryRepository transactionEntryRepository;
     private final UserContextService userContextService;
     private final ExcelService excelService;
     private final CategoryRepository categoryRepository;
     private final AccountRepository accountRepository;
     private final br.com.fabioprada.financial.repository.MonthlyPlanningRepository monthlyPlanningRepository;
-
-    public TransactionService(TransactionRepository transactionRepository, UserContextService userContextService,
+    private final AccountBalanceService accountBalanceService;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final EntityManager entityManager;
+    private final UserScopedCache userScopedCache;
+    private final InstallmentPlanRepository installmentPlanRepository;
+    private final MeterRegistry meterRegistry;
+    private final Counter exportRows;
+    private final Counter exportBytes;
+
+    public TransactionService(TransactionRepository transactionRepository,
+            TransactionEntryRepository transactionEntryRepository, UserContextService userContextService,
             ExcelService excelService,
             CategoryRepository categoryRepository, AccountRepository accountRepository,
-            br.com.fabioprada.financial.repository.MonthlyPlanningRepository monthlyPlanningRepository) {
+            br.com.fabioprada.financial.repository.MonthlyPlanningRepository monthlyPlanningRepository,
+            AccountBalanceService accountBalanceService, EntityManager entityManager,
+            UserScopedCache userScopedCache, MonthlyAggregateService monthlyAggregateService,
+            InstallmentPlanRepository installmentPlanRepository, MeterRegistry meterRegistry) {
         this.transactionRepository = transactionRepository;
+        this.transactionEntryRepository = transactionEntryRepository;
         this.userContextService = userContextService;
         this.excelService = excelService;
         this.categoryRepository = categoryRepository;
         this.accountRepository = accountRepository;
         this.monthlyPlanningRepository = monthlyPlanningRepository;
+        this.accountBalanceService = accountBalanceService;
+        this.entityManager = entityManager;
+        this.userScopedCache = userScopedCache;
+        this.monthlyAggregateService = monthlyAggregateService;
+        this.installmentPlanRepository = installmentPlanRepository;
+        this.meterRegistry = meterRegistry;
+        this.exportRows = Counter.builder("export.rows").description("Transactions written to Excel exports")
+                .register(meterRegistry);
+        this.exportBytes = Counter.builder("export.bytes").baseUnit("bytes")
+                .description("Size of the Excel exports sent").register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<TransactionDTO> searchTransactions(String name, LocalDate startDate, LocalDate endDate,
+            Long categoryId, String transactionType, Pageable pageable) {
+        Timer timer = Timer.builder("transactions.search")
+                .description("Transaction listing latency by the set of filters in use")
+                .tag("filters", activeFilters(name, startDate, endDate, categoryId, transactionType))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return timer.record(() -> userContextService.getCurrentUser().map(user -> {
+            Specification<TransactionEntry> spec = createSpecification(user.getId(), name, startDate, endDate,
+                    categoryId, transactionType);
+            return transactionEntryRepository.findAll(spec, pageable).map(TransactionDTO::from);
+        }).orElse(Page.empty()));
     }
 
-    public Page<Transaction> searchTransactions(String name, LocalDate startDate, LocalDate endDate, Long categoryId,
-            String transactionType, Pageable pageable) {
+    // Bounded tag value such as "name+date", so each filter combination gets its own timer
+    private static String activeFilters(String name, LocalDate startDate, LocalDate endDate, Long categoryId,
+            String transactionType) {
+        StringJoiner filters = new StringJoiner("+");
+        if (name != null && !name.isEmpty()) {
+            filters.add("name");
+        }
+        if (startDate != null || endDate != null) {
+            filters.add("date");
+        }
+        if (categoryId != null) {
+            filters.add("category");
+        }
+        if (transactionType != null && !transactionType.isEmpty()) {
+            filters.add("type");
+        }
+        return filters.length() > 0 ? filters.toString() : "none";
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionSliceDTO searchTransactionsAfter(String name, LocalDate startDate, LocalDate endDate,
+            Long categoryId, String transactionType, String after, int size) {
         return userContextService.getCurrentUser().map(user -> {
-            Specification<Transaction> spec = createSpecification(user.getId(), name, startDate, endDate, categoryId,
-                    transactionType);
-            return transactionRepository.findAll(spec, pageable);
-        }).orElse(Page.empty());
+            Specification<TransactionEntry> spec = createSpecification(user.getId(), name, startDate, endDate,
+                    categoryId, transactionType);
+            if (after != null && !after.isEmpty()) {
+                spec = spec.and(seekAfter(decodeCursor(after)));
+            }
+
+            // Fetch one extra row to learn whether another slice exists, without a count query
+            Sort sort = Sort.by(Sort.Order.desc("creationDate"), Sort.Order.desc("id"));
+            List<TransactionEntry> rows = transactionEntryRepository.findBy(spec,
+                    query -> query.project(TransactionEntryRepository.LISTING_GRAPH).sortBy(sort).limit(size + 1)
+                            .all());
+
+            boolean hasNext = rows.size() > size;
+            List<TransactionEntry> content = hasNext ? rows.subList(0, size) : rows;
+            String nextCursor = null;
+            if (hasNext) {
+                TransactionEntry last = content.get(content.size() - 1);
+                nextCursor = new TransactionCursor(last.getCreationDate(), last.getId()).encode();
+            }
+            return new TransactionSliceDTO(content.stream().map(TransactionDTO::from).toList(), nextCursor,
+                    hasNext);
+        }).orElse(new TransactionSliceDTO(Collections.emptyList(), null, false));
+    }
+
+    private static TransactionCursor decodeCursor(String after) {
+        try {
+            return TransactionCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    private Specification<TransactionEntry> seekAfter(TransactionCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("creationDate"), cursor.creationDate()),
+                cb.and(cb.equal(root.get("creationDate"), cursor.creationDate()),
+                        cb.lessThan(root.get("id"), cursor.id())));
     }
 
-    private Specification<Transaction> createSpecification(Long userId, String name, LocalDate startDate,
+    // Works for Transaction and TransactionEntry alike, which share these attribute names
+    static <T> Specification<T> createSpecification(Long userId, String name, LocalDate startDate,
             LocalDate endDate, Long categoryId, String transactionType) {
-        return (Root<Transaction> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
+        return (Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             predicates.add(cb.equal(root.get("user").get("id"), userId));
             if (name != null && !name.isEmpty()) {
@@ -89,104 +204,75 @@ public class TransactionService {
         };
     }
 
-    public ByteArrayInputStream exportTransactions(String name, LocalDate startDate, LocalDate endDate, Long categoryId,
-            String transactionType) {
+    @Transactional(readOnly = true)
+    public void exportTransactions(String name, LocalDate startDate, LocalDate endDate, Long categoryId,
+            String transactionType, OutputStream out) {
         User user = userContextService.getCurrentUserOrThrow();
 
-        // Fetch Transactions
-        Specification<Transaction> spec = createSpecification(user.getId(), name, startDate, endDate, categoryId,
-                transactionType);
-        List<Transaction> transactions = transactionRepository.findAll(spec);
-
         // Fetch All Monthly Plannings for the user (could filter by date range if
         // needed, but for now export all)
         List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings = monthlyPlanningRepository
                 .findAllByUserId(user.getId());
 
-        return excelService.exportToExcel(transactions, plannings);
+        // Stream Transactions through a database cursor, detaching each row once read
+        Specification<TransactionEntry> spec = createSpecification(user.getId(), name, startDate, endDate,
+                categoryId, transactionType);
+        Sort sort = Sort.by(Sort.Order.asc("creationDate"), Sort.Order.asc("id"));
+        CountingOutputStream counted = new CountingOutputStream(out);
+        try (Stream<TransactionEntry> entries = transactionEntryRepository.findBy(spec,
+                query -> query.project(TransactionEntryRepository.LISTING_GRAPH).sortBy(sort).stream())) {
+            Stream<TransactionDTO> transactions = entries.map(entry -> {
+                TransactionDTO transaction = TransactionDTO.from(entry);
+                entityManager.detach(entry);
+                return transaction;
+            });
+            excelService.exportToExcel(transactions, plannings, counted, transaction -> exportRows.increment());
+        } finally {
+            exportBytes.increment(counted.getCount());
+        }
     }
 
+    /**
+     * Persists one chunk of imported rows for the given user: resolves names,
+     * skips transactions and plannings the user already has, saves the rest in JDBC batches
+     * and applies their balance and aggregate effects. Import jobs commit each
+     * chunk on its own.
+     */
     @Transactional
-    public void importTransactions(MultipartFile file) {
-        try {
-            User user = userContextService.getCurrentUserOrThrow();
-            br.com.fabioprada.financial.dto.ImportDataDTO data = excelService.importData(file.getInputStream());
-            List<Transaction> transactions = data.getTransactions();
-            List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings = data.getMonthlyPlannings();
-
-            // --- Save Transactions ---
-            for (Transaction transaction : transactions) {
-                transaction.setUser(user);
-
-                // Handle Category
-                if (transaction.getCategory() != null && transaction.getCategory().getName() != null) {
-                    String categoryName = transaction.getCategory().getName();
-                    Category category = categoryRepository.findByNameAndUserId(categoryName, user.getId())
-                            .orElseGet(() -> {
-                                Category newCategory = new Category();
-                                newCategory.setName(categoryName);
-                                newCategory.setUser(user);
-                                return categoryRepository.save(newCategory);
-                            });
-                    transaction.setCategory(category);
-                }
-
-                // Handle Out Account
-                if (transaction.getOutAccount() != null && transaction.getOutAccount().getName() != null) {
-                    String accountName = transaction.getOutAccount().getName();
-                    Account account = accountRepository.findByNameAndUserId(accountName, user.getId())
-                            .orElseGet(() -> {
-                                Account newAccount = new Account();
-                                newAccount.setName(accountName);
-                                newAccount.setUser(user);
-                                newAccount.setInitialBalance(BigDecimal.ZERO);
-                                newAccount.setCurrentBalance(BigDecimal.ZERO);
-                                return accountRepository.save(newAccount);
-                            });
-                    transaction.setOutAccount(account);
-                }
-
-                // Handle In Account
-                if (transaction.getInAccount() != null && transaction.getInAccount().getName() != null) {
-                    String accountName = transaction.getInAccount().getName();
-                    Account account = accountRepository.findByNameAndUserId(accountName, user.getId())
-                            .orElseGet(() -> {
-                                Account newAccount = new Account();
-                                newAccount.setName(accountName);
-                                newAccount.setUser(user);
-                                newAccount.setInitialBalance(BigDecimal.ZERO);
-                                newAccount.setCurrentBalance(BigDecimal.ZERO);
-                                return accountRepository.save(newAccount);
-                            });
-                    transaction.setInAccount(account);
-                }
-
-                save(transaction);
-            }
-
-            // --- Save Monthly Plannings ---
-            for (br.com.fabioprada.financial.model.MonthlyPlanning planning : plannings) {
-                planning.setUser(user);
-
-                // Handle Category
-                if (planning.getCategory() != null && planning.getCategory().getName() != null) {
-                    String categoryName = planning.getCategory().getName();
-                    Category category = categoryRepository.findByNameAndUserId(categoryName, user.getId())
-                            .orElseGet(() -> {
-                                Category newCategory = new Category();
-                                newCategory.setName(categoryName);
-                                newCategory.setUser(user);
-                                return categoryRepository.save(newCategory);
-                            });
-                    planning.setCategory(category);
-                }
+    public void importChunk(User user, ImportNameResolver resolver, ImportDeduplicator deduplicator,
+            List<Transaction> transactions, List<br.com.fabioprada.financial.model.MonthlyPlanning> plannings) {
+        resolver.createMissing(transactions, plannings);
+
+        // --- Save Transactions ---
+        transactions.forEach(resolver::resolve);
+        List<Transaction> saved = transactionRepository.saveAll(deduplicator.removeExisting(transactions));
+        accountBalanceService.applyAll(saved);
+        monthlyAggregateService.applyAll(saved);
+
+        // --- Save Monthly Plannings ---
+        plannings.forEach(resolver::resolve);
+        monthlyPlanningRepository.saveAll(deduplicator.removeExistingPlannings(plannings));
+        flushAndClear();
+
+        userScopedCache.evict(user.getId(), UserScopedCache.DASHBOARD, UserScopedCache.ACCOUNTS,
+                UserScopedCache.CATEGORIES, UserScopedCache.PLANNINGS);
+    }
 
-                monthlyPlanningRepository.save(planning);
-            }
+    /**
+     * Fills the fingerprint of rows written before fingerprints were stored.
+     */
+    @Transactional
+    public int backfillFingerprints() {
+        return transactionRepository.backfillFingerprints();
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException("fail to store excel data: " + e.getMessage());
-        }
+    /**
+     * Writes the pending batch and releases the saved rows, so large imports do
+     * not accumulate every entity in the persistence context.
+     */
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
 
     public List<Transaction> findAllByUserId() {
@@ -196,68 +282,420 @@ public class TransactionService {
     }
 
     public Optional<Transaction> findByIdAndUserId(Long id) {
-        return userContextService.getCurrentUser()
-                .flatMap(user -> transactionRepository.findByIdAndUserId(id, user.getId()));
+        return userContextService.getCurrentUser().flatMap(user -> {
+            if (InstallmentPlan.isVirtualId(id)) {
+                int number = InstallmentPlan.numberOf(id);
+                return installmentPlanRepository.findByIdAndUserId(InstallmentPlan.planIdOf(id), user.getId())
+                        .filter(plan -> plan.isExpanded(number))
+                        .map(plan -> plan.installment(number));
+            }
+            return transactionRepository.findByIdAndUserId(id, user.getId());
+        });
     }
 
     @Transactional
     public Transaction save(Transaction transaction) {
         User user = userContextService.getCurrentUserOrThrow();
         transaction.setUser(user);
+        evictCaches(user.getId());
 
-        if (transaction.getTotalInstallments() != null && transaction.getTotalInstallments() > 1) {
+        if (InstallmentPlan.isVirtualId(transaction.getId())) {
+            return detachInstallment(transaction, user);
+        }
+
+        // Only a new purchase is split; editing an installment changes that row alone
+        if (transaction.getId() == null && transaction.getTotalInstallments() != null
+                && transaction.getTotalInstallments() > 1) {
             return saveInstallments(transaction, user);
         }
 
-        return transactionRepository.save(transaction);
+        if (transaction.getId() != null && transaction.getPersistedState() == null) {
+            // Not loaded from this user's rows, so what it contributes today is unknown: read the stored row
+            Transaction stored = transactionRepository.findByIdAndUserId(transaction.getId(), user.getId())
+                    .orElseThrow(() -> new BadRequestException("Transaction not found"));
+            transaction.setPersistedState(stored.getPersistedState());
+        }
+
+        accountBalanceService.revert(transaction);
+        monthlyAggregateService.revert(transaction);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        monthlyAggregateService.apply(savedTransaction);
+        accountBalanceService.apply(savedTransaction);
+        return savedTransaction;
+    }
+
+    /**
+     * Stores an expanded installment edited on its own as a row of its own,
+     * linked to the plan, and stops expanding it from the plan.
+     */
+    private Transaction detachInstallment(Transaction installment, User user) {
+        long virtualId = installment.getId();
+        int number = InstallmentPlan.numberOf(virtualId);
+        InstallmentPlan plan = installmentPlanRepository.findByIdAndUserId(InstallmentPlan.planIdOf(virtualId),
+                user.getId()).filter(p -> p.isExpanded(number))
+                .orElseThrow(() -> new BadRequestException("Transaction not found"));
+
+        accountBalanceService.applyInstallments(plan, plan.amountOf(number).negate());
+        plan.getDetachedNumbers().add(number);
+
+        installment.setId(null);
+        installment.setInstallmentPlan(plan);
+        installment.setInstallmentNumber(number);
+        installment.setTotalInstallments(plan.getTotalInstallments());
+        Transaction saved = transactionRepository.save(installment);
+        monthlyAggregateService.apply(saved);
+        accountBalanceService.apply(saved);
+        return saved;
     }
 
+    /**
+     * Stores a new purchase as a single plan row; its installments are
+     * expanded when read. Returns the first installment.
+     */
     private Transaction saveInstallments(Transaction transaction, User user) {
-        // Ensure the first transaction has installment number 1
-        if (transaction.getInstallmentNumber() == null) {
-            transaction.setInstallmentNumber(1);
+        int count = transaction.getTotalInstallments();
+        if (count > InstallmentPlan.MAX_INSTALLMENTS) {
+            throw new BadRequestException("A purchase can have at most " + InstallmentPlan.MAX_INSTALLMENTS
+                    + " installments");
         }
 
-        // Calculate installment amount
-        BigDecimal installmentAmount = transaction.getAmount().divide(
-                BigDecimal.valueOf(transaction.getTotalInstallments()), 2, java.math.RoundingMode.HALF_UP);
-        transaction.setAmount(installmentAmount);
+        InstallmentPlan plan = new InstallmentPlan();
+        plan.setUser(user);
+        plan.setName(transaction.getName());
+        plan.setTotalAmount(transaction.getAmount());
+        plan.setInstallmentCount(count);
+        plan.setTotalInstallments(count);
+        plan.setStartDate(transaction.getCreationDate());
+        plan.setTransactionType(transaction.getTransactionType());
+        plan.setCategory(transaction.getCategory());
+        plan.setOutAccount(transaction.getOutAccount());
+        plan.setInAccount(transaction.getInAccount());
+        plan = installmentPlanRepository.save(plan);
+
+        // The whole purchase moves the accounts at once; monthly totals add the installments when read
+        accountBalanceService.applyInstallments(plan, plan.getTotalAmount());
+        return plan.installment(1);
+    }
 
-        // Save the first installment
-        Transaction savedTransaction = transactionRepository.save(transaction);
+    /**
+     * Applies the given values to an installment and to every installment of
+     * the same purchase after it, keeping their dates. Stored installments are
+     * changed with a single UPDATE; expanded ones through their plan. Returns
+     * how many installments were changed.
+     */
+    @Transactional
+    public int updateFollowingInstallments(Transaction installment, Transaction details) {
+        Long userId = installment.getUser().getId();
+        Long planId = planIdOf(installment);
+        int fromNumber = installment.getInstallmentNumber();
+        validateDetails(details);
+        Category category = ownedCategory(details.getCategory(), userId);
+        Account outAccount = ownedAccount(details.getOutAccount(), userId);
+        Account inAccount = ownedAccount(details.getInAccount(), userId);
+
+        List<Long> ids = transactionRepository.findInstallmentIdsFrom(userId, planId, fromNumber);
+        accountBalanceService.revertAll(userId, ids);
+        monthlyAggregateService.revertAll(userId, ids);
+
+        // Loaded after the bulk updates above, which clear the persistence context
+        InstallmentPlan plan = loadPlan(planId, userId);
+        int expanded = plan.expandedCountFrom(fromNumber);
+        accountBalanceService.applyInstallments(plan, plan.expandedAmountFrom(fromNumber).negate());
+
+        InstallmentPlan following = fromNumber > plan.getFirstNumber() ? split(plan, fromNumber) : plan;
+        following.setName(details.getName());
+        following.setTotalAmount(details.getAmount().multiply(BigDecimal.valueOf(following.getInstallmentCount())));
+        following.setTransactionType(details.getTransactionType());
+        following.setCategory(category);
+        following.setOutAccount(outAccount);
+        following.setInAccount(inAccount);
+        // Flushed before the bulk update below clears the persistence context
+        following = installmentPlanRepository.saveAndFlush(following);
+        accountBalanceService.applyInstallments(following, following.expandedAmountFrom(fromNumber));
+
+        int updated = transactionRepository.updateInstallmentsFrom(userId, planId, fromNumber, following,
+                details.getName(), details.getAmount(), details.getTransactionType(), category, outAccount,
+                inAccount);
+
+        transactionRepository.refreshFingerprints(userId, ids);
+        accountBalanceService.applyAll(userId, ids);
+        monthlyAggregateService.applyAll(userId, ids);
+        evictCaches(userId);
+        return updated + expanded;
+    }
+
+    /**
+     * Moves the installments from the given number on to a new plan, so they
+     * can take values the earlier ones keep.
+     */
+    private InstallmentPlan split(InstallmentPlan plan, int fromNumber) {
+        InstallmentPlan following = new InstallmentPlan();
+        following.setUser(plan.getUser());
+        following.setFirstNumber(fromNumber);
+        following.setInstallmentCount(Math.max(plan.lastNumber() - fromNumber + 1, 0));
+        following.setTotalInstallments(plan.getTotalInstallments());
+        following.setStartDate(plan.getStartDate());
+        plan.getDetachedNumbers().stream().filter(n -> n >= fromNumber)
+                .forEach(following.getDetachedNumbers()::add);
+        plan.truncateAt(fromNumber);
+        return following;
+    }
 
-        // Create and save subsequent installments
-        for (int i = 2; i <= transaction.getTotalInstallments(); i++) {
-            Transaction installment = new Transaction();
-            installment.setUser(user);
-            installment.setName(transaction.getName());
-            installment.setAmount(installmentAmount);
-            installment.setTransactionType(transaction.getTransactionType());
-            installment.setCategory(transaction.getCategory());
-            installment.setOutAccount(transaction.getOutAccount());
-            installment.setInAccount(transaction.getInAccount());
-            installment.setTotalInstallments(transaction.getTotalInstallments());
-            installment.setInstallmentNumber(i);
-
-            // Increment date by 1 month for each installment
-            installment.setCreationDate(transaction.getCreationDate().plusMonths(i - 1));
-
-            transactionRepository.save(installment);
+    /**
+     * Deletes an installment and every installment of the same purchase after
+     * it, shortening the plan to the installments before it. Stored
+     * installments are removed with a single DELETE. Returns how many
+     * installments were removed.
+     */
+    @Transactional
+    public int deleteFollowingInstallments(Transaction installment) {
+        Long userId = installment.getUser().getId();
+        Long planId = planIdOf(installment);
+        int fromNumber = installment.getInstallmentNumber();
+
+        List<Long> ids = transactionRepository.findInstallmentIdsFrom(userId, planId, fromNumber);
+        accountBalanceService.revertAll(userId, ids);
+        monthlyAggregateService.revertAll(userId, ids);
+        int deleted = transactionRepository.deleteInstallmentsFrom(userId, planId, fromNumber);
+
+        InstallmentPlan plan = loadPlan(planId, userId);
+        deleted += plan.expandedCountFrom(fromNumber);
+        accountBalanceService.applyInstallments(plan, plan.expandedAmountFrom(fromNumber).negate());
+
+        plan.truncateAt(fromNumber);
+        plan.trimDetachedTail();
+        // Earlier installments may have been deleted one by one, so what is left is counted
+        if (isEmpty(plan)) {
+            installmentPlanRepository.delete(plan);
+        } else {
+            // The purchase now ends right before the deleted installment
+            int totalInstallments = fromNumber - 1;
+            plan.setTotalInstallments(totalInstallments);
+            installmentPlanRepository.saveAndFlush(plan);
+            transactionRepository.updateTotalInstallments(planId, totalInstallments);
         }
-        return savedTransaction;
+        evictCaches(userId);
+        return deleted;
     }
 
-    public void deleteById(Long id) {
-        userContextService.getCurrentUser().ifPresent(user -> transactionRepository.findByIdAndUserId(id, user.getId())
-                .ifPresent(transactionRepository::delete));
+    // A plan with no expanded installment and no stored row left no longer stands for anything
+    private boolean isEmpty(InstallmentPlan plan) {
+        return !plan.hasExpandedInstallments() && transactionRepository.countByInstallmentPlanId(plan.getId()) == 0;
+    }
+
+    // Drops the given plans of a user once their installments were all deleted
+    private void deleteEmptyPlans(Long userId, Collection<Long> planIds) {
+        if (planIds.isEmpty()) {
+            return;
+        }
+        for (InstallmentPlan plan : installmentPlanRepository.findAllByIdInAndUserId(planIds, userId)) {
+            plan.trimDetachedTail();
+            if (isEmpty(plan)) {
+                installmentPlanRepository.delete(plan);
+            }
+        }
+    }
+
+    private static void validateDetails(Transaction details) {
+        if (details.getName() == null || details.getName().isBlank()) {
+            throw new BadRequestException("name is required");
+        }
+        if (details.getAmount() == null) {
+            throw new BadRequestException("amount is required");
+        }
+        if (details.getTransactionType() == null) {
+            throw new BadRequestException("transactionType is required");
+        }
+    }
+
+    private InstallmentPlan loadPlan(Long planId, Long userId) {
+        return installmentPlanRepository.findByIdAndUserId(planId, userId)
+                .orElseThrow(() -> new BadRequestException("Transaction is not an installment"));
+    }
+
+    private Category ownedCategory(Category category, Long userId) {
+        if (category == null || category.getId() == null) {
+            return null;
+        }
+        return categoryRepository.findByIdAndUserId(category.getId(), userId)
+                .orElseThrow(() -> new BadRequestException("Category not found"));
+    }
+
+    private Account ownedAccount(Account account, Long userId) {
+        if (account == null || account.getId() == null) {
+            return null;
+        }
+        return accountRepository.findByIdAndUserId(account.getId(), userId)
+                .orElseThrow(() -> new BadRequestException("Account not found"));
+    }
+
+    private static Long planIdOf(Transaction installment) {
+        if (installment.getInstallmentPlan() == null || installment.getInstallmentNumber() == null) {
+            throw new BadRequestException("Transaction is not an installment");
+        }
+        return installment.getInstallmentPlan().getId();
+    }
+
+    /**
+     * Converts installments saved as one row each into a plan per purchase,
+     * grouping rows by user, name, installment count and the date of the first
+     * installment. Rows carrying the purchase's values are replaced by the
+     * plan's expanded installments; the others stay as rows linked to it.
+     * Account balances are unchanged. Returns how many plans were created.
+     */
+    @Transactional
+    public int linkLegacyInstallments() {
+        Map<List<Object>, List<UnlinkedInstallment>> purchases = new LinkedHashMap<>();
+        for (UnlinkedInstallment row : transactionRepository.findUnlinkedInstallments()) {
+            LocalDate startDate = row.getCreationDate().minusMonths(row.getInstallmentNumber() - 1L);
+            purchases.computeIfAbsent(List.of(row.getUserId(), row.getName(), row.getTotalInstallments(), startDate),
+                    key -> new ArrayList<>()).add(row);
+        }
+
+        int created = 0;
+        for (Map.Entry<List<Object>, List<UnlinkedInstallment>> purchase : purchases.entrySet()) {
+            List<UnlinkedInstallment> rows = purchase.getValue();
+            int count = rows.get(0).getTotalInstallments();
+            if (count > InstallmentPlan.MAX_INSTALLMENTS) {
+                continue;
+            }
+            UnlinkedInstallment first = rows.stream()
+                    .min(Comparator.comparing(UnlinkedInstallment::getInstallmentNumber)).orElseThrow();
+
+            InstallmentPlan plan = new InstallmentPlan();
+            plan.setUser(entityManager.getReference(User.class, first.getUserId()));
+            plan.setName(first.getName());
+            plan.setInstallmentCount(count);
+            plan.setTotalInstallments(count);
+            plan.setStartDate((LocalDate) purchase.getKey().get(3));
+            plan.setTotalAmount(first.getAmount().multiply(BigDecimal.valueOf(count)));
+            plan.setTransactionType(first.getTransactionType());
+            plan.setCategory(first.getCategoryId() != null
+                    ? entityManager.getReference(Category.class, first.getCategoryId()) : null);
+            plan.setOutAccount(first.getOutAccountId() != null
+                    ? entityManager.getReference(Account.class, first.getOutAccountId()) : null);
+            plan.setInAccount(first.getInAccountId() != null
+                    ? entityManager.getReference(Account.class, first.getInAccountId()) : null);
+
+            // Every expanded installment carries the first one's amount, so only matching rows are replaced
+            Set<Integer> converted = new HashSet<>();
+            List<Long> convertedIds = new ArrayList<>();
+            List<Long> keptIds = new ArrayList<>();
+            for (UnlinkedInstallment row : rows) {
+                int number = row.getInstallmentNumber();
+                if (number >= 1 && number <= count && sameValues(row, first) && converted.add(number)) {
+                    convertedIds.add(row.getId());
+                } else {
+                    keptIds.add(row.getId());
+                }
+            }
+            for (int n = 1; n <= count; n++) {
+                if (!converted.contains(n)) {
+                    plan.getDetachedNumbers().add(n);
+                }
+            }
+            plan = installmentPlanRepository.save(plan);
+
+            Long userId = first.getUserId();
+            monthlyAggregateService.revertAll(userId, convertedIds);
+            transactionRepository.deleteAllByIdInAndUserId(convertedIds, userId);
+            if (!keptIds.isEmpty()) {
+                transactionRepository.linkInstallmentPlan(plan, keptIds);
+            }
+            created++;
+        }
+        return created;
     }
 
-    public void deleteMultiple(List<Long> ids) {
+    private static boolean sameValues(UnlinkedInstallment row, UnlinkedInstallment first) {
+        return row.getAmount().compareTo(first.getAmount()) == 0
+                && row.getTransactionType() == first.getTransactionType()
+                && Objects.equals(row.getCategoryId(), first.getCategoryId())
+                && Objects.equals(row.getOutAccountId(), first.getOutAccountId())
+                && Objects.equals(row.getInAccountId(), first.getInAccountId());
+    }
+
+    @Transactional
+    public void deleteById(Long id) {
         userContextService.getCurrentUser().ifPresent(user -> {
-            Long userId = user.getId();
-            for (Long id : ids) {
-                transactionRepository.findByIdAndUserId(id, userId).ifPresent(transactionRepository::delete);
+            if (InstallmentPlan.isVirtualId(id)) {
+                deleteExpandedInstallments(user.getId(), List.of(id));
+                deleteEmptyPlans(user.getId(), List.of(InstallmentPlan.planIdOf(id)));
+                evictCaches(user.getId());
+                return;
             }
+            transactionRepository.findByIdAndUserId(id, user.getId()).ifPresent(transaction -> {
+                InstallmentPlan plan = transaction.getInstallmentPlan();
+                delete(transaction);
+                if (plan != null) {
+                    deleteEmptyPlans(user.getId(), List.of(plan.getId()));
+                }
+                evictCaches(user.getId());
+            });
         });
     }
+
+    /**
+     * Deletes the given transactions of the current user with one balance
+     * update, one aggregate update and one DELETE, returning how many were
+     * removed. Expanded installments are removed from their plans.
+     */
+    @Transactional
+    public int deleteMultiple(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return userContextService.getCurrentUser().map(user -> {
+            Map<Boolean, List<Long>> byKind = ids.stream()
+                    .collect(Collectors.partitioningBy(InstallmentPlan::isVirtualId));
+            List<Long> stored = byKind.get(false);
+            Set<Long> planIds = new HashSet<>();
+            byKind.get(true).forEach(id -> planIds.add(InstallmentPlan.planIdOf(id)));
+            int deleted = 0;
+            if (!stored.isEmpty()) {
+                planIds.addAll(transactionRepository.findInstallmentPlanIds(user.getId(), stored));
+                accountBalanceService.revertAll(user.getId(), stored);
+                monthlyAggregateService.revertAll(user.getId(), stored);
+                deleted = transactionRepository.deleteAllByIdInAndUserId(stored, user.getId());
+            }
+            deleted += deleteExpandedInstallments(user.getId(), byKind.get(true));
+            deleteEmptyPlans(user.getId(), planIds);
+            evictCaches(user.getId());
+            return deleted;
+        }).orElse(0);
+    }
+
+    // Detaches the installment numbers from their plans, so they are no longer expanded
+    private int deleteExpandedInstallments(Long userId, Collection<Long> virtualIds) {
+        if (virtualIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Integer>> numbersByPlan = virtualIds.stream().collect(Collectors.groupingBy(
+                InstallmentPlan::planIdOf, Collectors.mapping(InstallmentPlan::numberOf, Collectors.toList())));
+        int deleted = 0;
+        for (InstallmentPlan plan : installmentPlanRepository.findAllByIdInAndUserId(numbersByPlan.keySet(), userId)) {
+            BigDecimal amount = BigDecimal.ZERO;
+            for (int number : numbersByPlan.get(plan.getId())) {
+                if (plan.isExpanded(number)) {
+                    amount = amount.add(plan.amountOf(number));
+                    plan.getDetachedNumbers().add(number);
+                    deleted++;
+                }
+            }
+            accountBalanceService.applyInstallments(plan, amount.negate());
+        }
+        return deleted;
+    }
+
+    // Transactions feed the dashboard totals, account balances and planning spent amounts
+    private void evictCaches(Long userId) {
+        userScopedCache.evict(userId, UserScopedCache.DASHBOARD, UserScopedCache.ACCOUNTS,
+                UserScopedCache.PLANNINGS);
+    }
+
+    private void delete(Transaction transaction) {
+        accountBalanceService.revert(transaction);
+        monthlyAggregateService.revert(transaction);
+        transactionRepository.delete(transaction);
+    }
 }
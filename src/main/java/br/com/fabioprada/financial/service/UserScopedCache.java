@@ -0,0 +1,83 @@
+package br.com.fabioprada.financial.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of per-user query results. Entries are keyed by user,
+ * the user's generation for that cache and query. A write drops the
+ * generation, and the next read draws a new one that was never used before,
+ * so the user's older entries are never read again and age out of the
+ * cache; eviction costs the same however many users are cached. Because
+ * generations are never reused, the generation map can forget idle users
+ * without ever serving stale entries. Evictions inside a transaction run
+ * after commit, so a concurrent read cannot cache data that is about to
+ * change. Cached values must be immutable DTOs, never entities, since
+ * every request of the user shares them.
+ */
+@Component
+public class UserScopedCache {
+
+    public static final String DASHBOARD = "dashboard";
+    public static final String ACCOUNTS = "accounts";
+    public static final String CATEGORIES = "categories";
+    public static final String PLANNINGS = "plannings";
+
+    private final CacheManager cacheManager;
+    private final AtomicLong lastGeneration = new AtomicLong();
+    private final com.github.benmanes.caffeine.cache.Cache<Generation, Long> generations = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public UserScopedCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    record Key(Long userId, long generation, Object query) {
+    }
+
+    record Generation(String cacheName, Long userId) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, Long userId, Object query, Supplier<T> loader) {
+        long generation = generations.get(new Generation(cacheName, userId), key -> lastGeneration.incrementAndGet());
+        return (T) cache(cacheName).get(new Key(userId, generation, query), loader::get);
+    }
+
+    public void evict(Long userId, String... cacheNames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId, cacheNames);
+                }
+            });
+        } else {
+            evictNow(userId, cacheNames);
+        }
+    }
+
+    private void evictNow(Long userId, String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            generations.invalidate(new Generation(cacheName, userId));
+        }
+    }
+
+    private Cache cache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + cacheName);
+        }
+        return cache;
+    }
+}
@@ -3,6 +3,7 @@ package br.com.fabioprada.financial.service;
 import br.com.fabioprada.financial.model.User;
 import br.com.fabioprada.financial.model.PasswordResetToken;
 import br.com.fabioprada.financial.repository.UserRepository;
+import br.com.fabioprada.financial.security.PrincipalCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,12 +16,15 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final br.com.fabioprada.financial.repository.PasswordResetTokenRepository passwordResetTokenRepository;
+    private final PrincipalCache principalCache;
 
     public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-            br.com.fabioprada.financial.repository.PasswordResetTokenRepository passwordResetTokenRepository) {
+            br.com.fabioprada.financial.repository.PasswordResetTokenRepository passwordResetTokenRepository,
+            PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -44,7 +48,9 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         user.setName(newName);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.evict(email);
+        return saved;
     }
 
     public void createPasswordResetTokenForUser(User user, String token) {
@@ -60,6 +66,7 @@ public class UserService implements UserDetailsService {
     public void updatePassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
     }
 
     public void changePassword(String email, String currentPassword, String newPassword) {
@@ -72,6 +79,7 @@ public class UserService implements UserDetailsService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        principalCache.evict(email);
     }
 
     public java.util.Optional<User> getUserByPasswordResetToken(String token) {
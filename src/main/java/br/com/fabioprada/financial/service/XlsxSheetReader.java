@@ -0,0 +1,192 @@
+package br.com.fabioprada.financial.service;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event-driven reader for a single worksheet part of an XLSX package. Rows are
+ * handed to a {@link RowHandler} as they are parsed, so only the current row
+ * is ever held in memory.
+ */
+class XlsxSheetReader {
+
+    interface RowHandler {
+        /**
+         * @return {@code false} to stop reading the rest of the sheet
+         */
+        boolean onRow(int rowIndex, List<SheetCell> cells);
+    }
+
+    /**
+     * Value of a cell as stored in the sheet: either text or a number, with
+     * numbers flagged as dates when the cell style has a date format.
+     */
+    record SheetCell(String text, Double number, boolean date) {
+
+        boolean isNumeric() {
+            return number != null;
+        }
+
+        String asString() {
+            if (number != null) {
+                return String.valueOf(number);
+            }
+            return text != null ? text : "";
+        }
+    }
+
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+
+    XlsxSheetReader(SharedStrings sharedStrings, StylesTable styles) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+    }
+
+    void read(InputStream sheet, RowHandler rowHandler) throws IOException, SAXException {
+        XMLReader parser;
+        try {
+            parser = XMLHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+        parser.setContentHandler(new SheetHandler(rowHandler));
+        try {
+            parser.parse(new InputSource(sheet));
+        } catch (StopReading e) {
+            // Row handler asked to stop early
+        }
+    }
+
+    /**
+     * Column index of a cell reference such as "C12", or -1 if absent.
+     */
+    static int columnIndex(String reference) {
+        if (reference == null) {
+            return -1;
+        }
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (!Character.isLetter(c)) {
+                break;
+            }
+            column = column * 26 + (Character.toUpperCase(c) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static class StopReading extends SAXException {
+    }
+
+    private class SheetHandler extends DefaultHandler {
+
+        private final RowHandler rowHandler;
+        private final StringBuilder value = new StringBuilder();
+        private final List<SheetCell> cells = new ArrayList<>();
+
+        private int currentRow = -1;
+        private int currentColumn = -1;
+        private String cellType;
+        private String cellStyle;
+        private boolean collecting;
+
+        SheetHandler(RowHandler rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    currentRow = r != null ? Integer.parseInt(r) - 1 : currentRow + 1;
+                    currentColumn = -1;
+                    cells.clear();
+                }
+                case "c" -> {
+                    String r = attributes.getValue("r");
+                    currentColumn = r != null ? columnIndex(r) : currentColumn + 1;
+                    cellType = attributes.getValue("t");
+                    cellStyle = attributes.getValue("s");
+                    value.setLength(0);
+                }
+                case "v", "t" -> collecting = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v", "t" -> collecting = false;
+                case "c" -> {
+                    SheetCell cell = toCell();
+                    if (cell != null) {
+                        while (cells.size() < currentColumn) {
+                            cells.add(null);
+                        }
+                        cells.add(cell);
+                    }
+                }
+                case "row" -> {
+                    if (!rowHandler.onRow(currentRow, cells)) {
+                        throw new StopReading();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private SheetCell toCell() {
+            if (value.isEmpty()) {
+                return null;
+            }
+            String raw = value.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                try {
+                    return new SheetCell(null, Double.parseDouble(raw), isDateStyle());
+                } catch (NumberFormatException e) {
+                    return new SheetCell(raw, null, false);
+                }
+            }
+            return switch (cellType) {
+                case "s" -> new SheetCell(sharedStrings.getItemAt(Integer.parseInt(raw)).getString(), null, false);
+                case "b" -> new SheetCell(String.valueOf("1".equals(raw)), null, false);
+                case "e" -> null;
+                default -> new SheetCell(raw, null, false);
+            };
+        }
+
+        private boolean isDateStyle() {
+            if (cellStyle == null || styles == null) {
+                return false;
+            }
+            XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(cellStyle));
+            return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.fabioprada.financial.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when it runs more SQL statements than {@link #value()}, or
+ * when one statement shape repeats more than {@link #maxRepeats()} times.
+ * Declare it on the test hitting an endpoint (e.g. through MockMvc, which
+ * runs on the test thread) to pin that endpoint's query budget.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    int value();
+
+    int maxRepeats() default Integer.MAX_VALUE;
+}
@@ -0,0 +1,47 @@
+package br.com.fabioprada.financial.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.Map;
+
+/**
+ * Records the statements of each test annotated with {@link QueryBudget} and
+ * checks them against the declared budget once the test finishes.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+            .create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryCounter.start());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryCounter.Recording recording = context.getStore(NAMESPACE)
+                .remove(context.getUniqueId(), QueryCounter.Recording.class);
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+
+        // A budget on the method overrides the one on the class
+        QueryBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+                .orElseThrow();
+
+        Map<String, Integer> repeated = recording.repeatedShapes(2);
+        Assertions.assertTrue(recording.getStatements() <= budget.value(), () -> "Expected at most "
+                + budget.value() + " SQL statements but ran " + recording.getStatements() + ", repeated: " + repeated);
+
+        Map<String, Integer> overRepeated = recording.repeatedShapes(budget.maxRepeats() + 1);
+        Assertions.assertTrue(overRepeated.isEmpty(), () -> "Statements repeated more than "
+                + budget.maxRepeats() + " times: " + overRepeated);
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.fabioprada.financial.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class QueryCounterTest {
+
+    private final QueryCounter inspector = new QueryCounter();
+
+    @Test
+    void testShapeIgnoresLiteralsAndListSizes() {
+        Assertions.assertEquals(QueryCounter.shape("select * from accounts a1_0 where a1_0.id in (?, ?, ?)"),
+                QueryCounter.shape("select *\n  from accounts a1_0\n  where a1_0.id in (?)"));
+        Assertions.assertEquals("select * from categories where name = ? and user_id = ?",
+                QueryCounter.shape("select * from categories where name = 'Mercado' and user_id = 42"));
+    }
+
+    @Test
+    void testRecordingFlagsRepeatedShapes() {
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            inspector.inspect("select * from transacoes where user_id = ?");
+            for (int i = 1; i <= 3; i++) {
+                inspector.inspect("select * from categories where id = " + i);
+            }
+
+            Assertions.assertEquals(4, recording.getStatements());
+            Assertions.assertEquals(Map.of("select * from categories where id = ?", 3),
+                    recording.repeatedShapes(2));
+        }
+    }
+
+    @Test
+    void testClosedRecordingStopsCounting() {
+        QueryCounter.Recording recording = QueryCounter.start();
+        recording.close();
+        inspector.inspect("select 1");
+
+        Assertions.assertEquals(0, recording.getStatements());
+    }
+
+    @Test
+    @QueryBudget(value = 3, maxRepeats = 2)
+    void testStatementsWithinBudget() {
+        inspector.inspect("select * from accounts where user_id = ?");
+        inspector.inspect("select * from categories where id = ?");
+        inspector.inspect("select * from categories where id = ?");
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.fabioprada.financial.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SlowQueryLogTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void testKeepsSlowestStatements() {
+        SlowQueryLog log = log(2);
+        log.record("select * from accounts where id = ?", 20 * MILLIS);
+        log.record("select * from categories where id = ?", 30 * MILLIS);
+        log.record("select * from transacoes where user_id = ?", 50 * MILLIS);
+        log.record("select * from users where id = ?", 15 * MILLIS);
+
+        List<String> kept = log.snapshot().stream().map(SlowQueryLog.Entry::sql).toList();
+        Assertions.assertEquals(List.of("select * from transacoes where user_id = ?",
+                "select * from categories where id = ?"), kept);
+    }
+
+    @Test
+    void testKeepsOneEntryPerShape() {
+        SlowQueryLog log = log(5);
+        log.record("select * from accounts where id = 1", 20 * MILLIS);
+        log.record("select * from accounts where id = 2", 40 * MILLIS);
+        log.record("select * from accounts where id = 3", 30 * MILLIS);
+
+        List<SlowQueryLog.Entry> entries = log.snapshot();
+        Assertions.assertEquals(1, entries.size());
+        Assertions.assertEquals(40.0, entries.get(0).durationMillis());
+    }
+
+    @Test
+    void testConcurrentRunsOfOneShapeKeepOneEntry() throws InterruptedException {
+        SlowQueryLog log = log(5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 1; i <= 200; i++) {
+            long duration = (10 + i) * MILLIS;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                log.record("select * from accounts where id = ?", duration);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<SlowQueryLog.Entry> entries = log.snapshot();
+        Assertions.assertEquals(1, entries.size());
+        Assertions.assertEquals(210.0, entries.get(0).durationMillis());
+    }
+
+    @Test
+    void testIgnoresStatementsBelowThreshold() {
+        SlowQueryLog log = log(5);
+        log.record("select 1", 5 * MILLIS);
+
+        Assertions.assertTrue(log.snapshot().isEmpty());
+    }
+
+    @Test
+    void testCountsParametersOutsideLiterals() {
+        Assertions.assertEquals(2, SlowQueryLog.countParameters("update t set a = ?, b = '?' where id = ?"));
+    }
+
+    private SlowQueryLog log(int size) {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setSize(size);
+        properties.setThreshold(Duration.ofMillis(10));
+        return new SlowQueryLog(properties);
+    }
+}
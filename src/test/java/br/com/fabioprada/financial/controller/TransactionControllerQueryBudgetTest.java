@@ -0,0 +1,118 @@
+package br.com.fabioprada.financial.controller;
+
+import br.com.fabioprada.financial.config.QueryBudget;
+import br.com.fabioprada.financial.config.QueryCountFilter;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the query budget of the transaction listing: one page of rows with
+ * their category and accounts must not load them one by one. The rows are
+ * saved before the budget starts counting. Needs the local PostgreSQL
+ * database, so it only runs with {@code -Ddb-tests=true}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "db-tests", matches = "true")
+public class TransactionControllerQueryBudgetTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User user;
+
+    @BeforeAll
+    void setUp() {
+        user = new User();
+        user.setEmail("budget-" + UUID.randomUUID() + "@example.com");
+        user.setName("Budget");
+        user.setPassword("unused");
+        user = userRepository.save(user);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Category category = new Category();
+            category.setName("Categoria " + i);
+            category.setUser(user);
+            Account account = new Account();
+            account.setName("Conta " + i);
+            account.setUser(user);
+            account.setInitialBalance(BigDecimal.ZERO);
+            account.setCurrentBalance(BigDecimal.ZERO);
+
+            Transaction transaction = new Transaction();
+            transaction.setUser(user);
+            transaction.setName("Compra " + i);
+            transaction.setAmount(BigDecimal.TEN);
+            transaction.setCreationDate(LocalDate.of(2025, 3, 1 + i));
+            transaction.setTransactionType(TransactionType.SAIDA);
+            transaction.setCategory(categoryRepository.save(category));
+            transaction.setOutAccount(accountRepository.save(account));
+            transactions.add(transaction);
+        }
+        transactionRepository.saveAll(transactions);
+    }
+
+    @AfterAll
+    void tearDown() {
+        transactionRepository.deleteAll(transactionRepository.findAllByUserId(user.getId()));
+        categoryRepository.deleteAll(categoryRepository.findAllByUserId(user.getId()));
+        accountRepository.deleteAll(accountRepository.findAllByUserId(user.getId()));
+        userRepository.delete(user);
+    }
+
+    @Test
+    @QueryBudget(value = 3, maxRepeats = 1)
+    void testListingLoadsPageInBoundedQueries() throws Exception {
+        mockMvc.perform(get("/api/transactions").with(user(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS))
+                .andExpect(jsonPath("$.content[0].category.name").exists())
+                .andExpect(header().exists(QueryCountFilter.HEADER));
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.fabioprada.financial.dto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+public class TransactionCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        TransactionCursor cursor = new TransactionCursor(LocalDate.of(2025, 3, 14), 4242L);
+
+        TransactionCursor decoded = TransactionCursor.decode(cursor.encode());
+
+        Assertions.assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void testDecodeRejectsMalformedToken() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not a cursor!"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(
+                new TransactionCursor(LocalDate.of(2025, 1, 1), 1L).encode().substring(2)));
+    }
+}
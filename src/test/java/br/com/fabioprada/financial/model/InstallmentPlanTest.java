@@ -0,0 +1,135 @@
+package br.com.fabioprada.financial.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class InstallmentPlanTest {
+
+    @Test
+    void testLastInstallmentAbsorbsRounding() {
+        InstallmentPlan plan = plan(1, 3, "100.00");
+
+        Assertions.assertEquals(new BigDecimal("33.33"), plan.amountOf(1));
+        Assertions.assertEquals(new BigDecimal("33.33"), plan.amountOf(2));
+        Assertions.assertEquals(new BigDecimal("33.34"), plan.amountOf(3));
+        Assertions.assertEquals(new BigDecimal("100.00"), plan.expandedAmountFrom(1));
+    }
+
+    @Test
+    void testVirtualIdRoundTrip() {
+        InstallmentPlan plan = plan(1, 3, "100.00");
+
+        for (int n : new int[]{1, 3, InstallmentPlan.MAX_INSTALLMENTS}) {
+            long virtualId = plan.virtualId(n);
+            Assertions.assertTrue(InstallmentPlan.isVirtualId(virtualId));
+            Assertions.assertEquals(plan.getId(), InstallmentPlan.planIdOf(virtualId));
+            Assertions.assertEquals(n, InstallmentPlan.numberOf(virtualId));
+        }
+        Assertions.assertFalse(InstallmentPlan.isVirtualId(7L));
+        Assertions.assertFalse(InstallmentPlan.isVirtualId(null));
+    }
+
+    @Test
+    void testDetachedInstallmentIsNotExpanded() {
+        InstallmentPlan plan = plan(1, 3, "100.00");
+        plan.getDetachedNumbers().add(2);
+
+        Assertions.assertTrue(plan.isExpanded(1));
+        Assertions.assertFalse(plan.isExpanded(2));
+        Assertions.assertFalse(plan.isExpanded(4));
+        Assertions.assertEquals(new BigDecimal("66.67"), plan.expandedAmountFrom(1));
+        Assertions.assertEquals(new BigDecimal("33.34"), plan.expandedAmountFrom(2));
+        Assertions.assertEquals(1, plan.expandedCountFrom(2));
+        // Detaching keeps the amounts of the other installments
+        Assertions.assertEquals(new BigDecimal("33.34"), plan.amountOf(3));
+    }
+
+    @Test
+    void testTruncateKeepsAmountsBeforeIt() {
+        InstallmentPlan plan = plan(1, 3, "100.00");
+        plan.getDetachedNumbers().add(3);
+        plan.truncateAt(2);
+
+        Assertions.assertEquals(1, plan.getInstallmentCount());
+        Assertions.assertEquals(new BigDecimal("33.33"), plan.getTotalAmount());
+        Assertions.assertEquals(new BigDecimal("33.33"), plan.amountOf(1));
+        Assertions.assertTrue(plan.getDetachedNumbers().isEmpty());
+        Assertions.assertTrue(plan.hasExpandedInstallments());
+    }
+
+    @Test
+    void testTruncateBeforeFirstNumberEmptiesPlan() {
+        InstallmentPlan plan = plan(4, 3, "90.00");
+        plan.truncateAt(2);
+
+        Assertions.assertEquals(0, plan.getInstallmentCount());
+        Assertions.assertEquals(BigDecimal.ZERO, plan.getTotalAmount());
+        Assertions.assertFalse(plan.hasExpandedInstallments());
+    }
+
+    @Test
+    void testTruncatePastLastNumberChangesNothing() {
+        InstallmentPlan plan = plan(1, 3, "100.00");
+        plan.truncateAt(4);
+
+        Assertions.assertEquals(3, plan.getInstallmentCount());
+        Assertions.assertEquals(new BigDecimal("100.00"), plan.getTotalAmount());
+    }
+
+    @Test
+    void testTrimDetachedTail() {
+        InstallmentPlan plan = plan(1, 4, "100.00");
+        plan.getDetachedNumbers().add(2);
+        plan.getDetachedNumbers().add(3);
+        plan.getDetachedNumbers().add(4);
+        plan.trimDetachedTail();
+
+        Assertions.assertEquals(1, plan.getInstallmentCount());
+        Assertions.assertEquals(new BigDecimal("25.00"), plan.getTotalAmount());
+        Assertions.assertTrue(plan.getDetachedNumbers().isEmpty());
+
+        plan.getDetachedNumbers().add(1);
+        plan.trimDetachedTail();
+        Assertions.assertEquals(0, plan.getInstallmentCount());
+        Assertions.assertFalse(plan.hasExpandedInstallments());
+    }
+
+    @Test
+    void testTrimKeepsDetachedGapsBeforeLastExpanded() {
+        InstallmentPlan plan = plan(1, 3, "100.00");
+        plan.getDetachedNumbers().add(2);
+        plan.trimDetachedTail();
+
+        Assertions.assertEquals(3, plan.getInstallmentCount());
+        Assertions.assertEquals(new BigDecimal("100.00"), plan.getTotalAmount());
+        Assertions.assertTrue(plan.getDetachedNumbers().contains(2));
+    }
+
+    @Test
+    void testInstallmentFallsMonthsAfterStart() {
+        InstallmentPlan plan = plan(4, 3, "90.00");
+        Transaction installment = plan.installment(5);
+
+        Assertions.assertEquals(plan.virtualId(5), installment.getId());
+        Assertions.assertEquals(LocalDate.of(2025, 5, 31), installment.getCreationDate());
+        Assertions.assertEquals(new BigDecimal("30.00"), installment.getAmount());
+        Assertions.assertEquals(6, installment.getTotalInstallments());
+        Assertions.assertSame(plan, installment.getInstallmentPlan());
+    }
+
+    private static InstallmentPlan plan(int firstNumber, int installmentCount, String totalAmount) {
+        InstallmentPlan plan = new InstallmentPlan();
+        plan.setId(7L);
+        plan.setName("Notebook");
+        plan.setTotalAmount(new BigDecimal(totalAmount));
+        plan.setFirstNumber(firstNumber);
+        plan.setInstallmentCount(installmentCount);
+        plan.setTotalInstallments(firstNumber + installmentCount - 1);
+        plan.setStartDate(LocalDate.of(2025, 1, 31));
+        plan.setTransactionType(TransactionType.SAIDA);
+        return plan;
+    }
+}
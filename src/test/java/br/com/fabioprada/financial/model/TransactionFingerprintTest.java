@@ -0,0 +1,41 @@
+package br.com.fabioprada.financial.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class TransactionFingerprintTest {
+
+    @Test
+    void testAmountScaleDoesNotChangeFingerprint() {
+        Transaction imported = transaction(new BigDecimal("10.5"), 7L);
+        Transaction stored = transaction(new BigDecimal("10.50"), 7L);
+
+        Assertions.assertEquals(TransactionFingerprint.of(stored), TransactionFingerprint.of(imported));
+        Assertions.assertEquals(44, TransactionFingerprint.of(stored).length());
+    }
+
+    @Test
+    void testCategoryIsPartOfFingerprint() {
+        Assertions.assertNotEquals(TransactionFingerprint.of(transaction(BigDecimal.TEN, 7L)),
+                TransactionFingerprint.of(transaction(BigDecimal.TEN, 8L)));
+        Assertions.assertNotEquals(TransactionFingerprint.of(transaction(BigDecimal.TEN, 7L)),
+                TransactionFingerprint.of(transaction(BigDecimal.TEN, null)));
+    }
+
+    private static Transaction transaction(BigDecimal amount, Long categoryId) {
+        Transaction transaction = new Transaction();
+        transaction.setName("Mercado");
+        transaction.setCreationDate(LocalDate.of(2025, 3, 14));
+        transaction.setAmount(amount);
+        transaction.setTransactionType(TransactionType.SAIDA);
+        if (categoryId != null) {
+            Category category = new Category();
+            category.setId(categoryId);
+            transaction.setCategory(category);
+        }
+        return transaction;
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.fabioprada.financial.repository;
+
+import br.com.fabioprada.financial.config.QueryCounter;
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plan-shape regression checks for the month lookups in
+ * {@link TransactionEntryRepository}, whose stored half must still read
+ * {@code transacoes} through its user and date index. The SQL Hibernate generates for each
+ * repository method is captured and EXPLAINed with sample parameters. They
+ * need the local PostgreSQL database, so they only run with
+ * {@code -Dplan-tests=true}.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "plan-tests", matches = "true")
+public class TransactionRepositoryPlanTest {
+
+    private static final String USER_DATE_INDEX = "idx_transaction_user_date_id";
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 4, 1);
+
+    private static final Pattern INDEX_SCAN = Pattern
+            .compile("(?:Index Scan|Index Only Scan|Bitmap Index Scan) (?:using |on )(\\w+)");
+
+    @Autowired
+    private TransactionEntryRepository transactionEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testMonthRangeUsesUserDateIndex() {
+        String sql;
+        try (QueryCounter.Recording recording = QueryCounter.start()) {
+            transactionEntryRepository.findByUserIdAndCreationDateRange(USER_ID, START, END);
+            sql = recording.getLastStatement();
+        }
+
+        String plan = explain(sql);
+
+        Assertions.assertEquals(List.of(USER_DATE_INDEX), indexesUsed(plan), plan);
+        Assertions.assertTrue(indexCondition(plan).contains("creation_date"), plan);
+    }
+
+    @Test
+    void testMonthStreamUsesUserDateIndex() {
+        String sql;
+        try (QueryCounter.Recording recording = QueryCounter.start();
+                Stream<TransactionDTO> rows = transactionEntryRepository
+                        .streamByUserIdAndCreationDateRange(USER_ID, START, END)) {
+            rows.findFirst();
+            sql = recording.getLastStatement();
+        }
+
+        String plan = explain(sql);
+
+        Assertions.assertEquals(List.of(USER_DATE_INDEX), indexesUsed(plan), plan);
+        Assertions.assertTrue(indexCondition(plan).contains("creation_date"), plan);
+    }
+
+    /**
+     * EXPLAINs a captured statement whose parameters are (userId, start, end),
+     * in that order.
+     */
+    private String explain(String sql) {
+        Assertions.assertNotNull(sql, "No statement was captured");
+        String prepared = numberParameters(sql);
+        Assertions.assertEquals(3, prepared.split("\\$").length - 1, sql);
+
+        // Small local tables would otherwise always be sequentially scanned
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("PREPARE month_range AS " + prepared);
+        try {
+            List<String> lines = jdbcTemplate.queryForList("EXPLAIN EXECUTE month_range(" + USER_ID
+                    + ", DATE '" + START + "', DATE '" + END + "')", String.class);
+            return String.join("\n", lines);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE month_range");
+        }
+    }
+
+    // JDBC placeholders become the $n parameters PREPARE expects
+    private String numberParameters(String sql) {
+        StringBuilder prepared = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameter);
+            } else {
+                prepared.append(c);
+            }
+        }
+        return prepared.toString();
+    }
+
+    // Indexes of transacoes only; plans and joined tables are scanned through their own keys
+    private List<String> indexesUsed(String plan) {
+        Matcher matcher = INDEX_SCAN.matcher(plan);
+        return matcher.results()
+                .map(result -> result.group(1))
+                .filter(index -> index.startsWith("idx_transaction") || index.startsWith("transacoes"))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private String indexCondition(String plan) {
+        return plan.lines()
+                .filter(line -> line.contains("Index Cond"))
+                .findFirst()
+                .orElse("");
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.fabioprada.financial.security;
+
+import br.com.fabioprada.financial.config.JwtProperties;
+import br.com.fabioprada.financial.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+public class JwtRequestFilterTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("TestSecretThatIsLongEnoughToBeUsedWithHmacSha256");
+        properties.setExpiration(3600L);
+        jwtTokenProvider = new JwtTokenProvider(properties);
+        jwtTokenProvider.init();
+
+        user = new User();
+        user.setId(7L);
+        user.setEmail("filter@example.com");
+        user.setName("Antigo");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filter(String token, UserDetailsService userDetailsService) throws Exception {
+        JwtRequestFilter filter = new JwtRequestFilter(userDetailsService, jwtTokenProvider, new PrincipalCache(),
+                new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Assertions.assertNotNull(chain.getRequest(), "the request must continue down the chain");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void testInvalidTokenContinuesUnauthenticated() throws Exception {
+        Assertions.assertNull(filter("not-a-token", email -> user));
+    }
+
+    @Test
+    void testPrincipalComesFromTheCurrentUserRow() throws Exception {
+        String token = jwtTokenProvider.generateToken(user);
+        User renamed = new User();
+        renamed.setId(7L);
+        renamed.setEmail("filter@example.com");
+        renamed.setName("Novo");
+
+        Authentication authentication = filter(token, email -> renamed);
+
+        Assertions.assertSame(renamed, authentication.getPrincipal());
+    }
+
+    @Test
+    void testTokenOfMissingOrReplacedUserIsIgnored() throws Exception {
+        String token = jwtTokenProvider.generateToken(user);
+        User other = new User();
+        other.setId(8L);
+        other.setEmail("filter@example.com");
+
+        Assertions.assertNull(filter(token, email -> {
+            throw new UsernameNotFoundException(email);
+        }));
+        Assertions.assertNull(filter(token, email -> other));
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.fabioprada.financial.security;
+
+import br.com.fabioprada.financial.config.JwtProperties;
+import br.com.fabioprada.financial.model.User;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("TestSecretThatIsLongEnoughToBeUsedWithHmacSha256");
+        properties.setExpiration(3600L);
+        jwtTokenProvider = new JwtTokenProvider(properties);
+        jwtTokenProvider.init();
+
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("jwt@example.com");
+        user.setName("Jwt");
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void testVerifyReadsClaimsOnceAndSharesTheResult() {
+        VerifiedToken verified = jwtTokenProvider.verify(token);
+
+        Assertions.assertEquals(7L, verified.uid());
+        Assertions.assertEquals("jwt@example.com", verified.subject());
+        Assertions.assertEquals(List.of("ROLE_USER"), verified.roles());
+        Assertions.assertSame(verified, jwtTokenProvider.verify(token));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> verified.roles().add("ROLE_ADMIN"));
+    }
+
+    @Test
+    void testVerifyRejectsTamperedToken() {
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        Assertions.assertThrows(JwtException.class, () -> jwtTokenProvider.verify(tampered));
+    }
+}
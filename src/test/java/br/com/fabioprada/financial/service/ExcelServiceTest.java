@@ -2,6 +2,9 @@ package br.com.fabioprada.financial.service;
 
 import br.com.fabioprada.financial.dto.ImportDataDTO;
 import br.com.fabioprada.financial.model.MonthlyPlanning;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -13,6 +16,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class ExcelServiceTest {
 
@@ -54,4 +58,66 @@ public class ExcelServiceTest {
             Assertions.assertEquals(new BigDecimal("1500.0"), plan.getEstimatedAmount());
         }
     }
+
+    @Test
+    void testImportTransactionsDetectedFromHeaderRow() throws IOException {
+        ExcelService service = new ExcelService();
+
+        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            // A sheet without the expected header must be ignored
+            Sheet notes = workbook.createSheet("Notas");
+            notes.createRow(0).createCell(0).setCellValue("Qualquer coisa");
+
+            Sheet sheet = workbook.createSheet("Extrato");
+            Row header = sheet.createRow(0);
+            String[] headers = { "Nome", "Data", "Valor", "Tipo", "Categoria", "Conta Saída", "Conta Entrada" };
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("Mercado");
+            first.createCell(1).setCellValue(LocalDate.of(2025, 2, 10));
+            first.getCell(1).setCellStyle(dateStyle);
+            first.createCell(2).setCellValue(250.5);
+            first.createCell(3).setCellValue("SAIDA");
+            first.createCell(4).setCellValue("Alimentação");
+            first.createCell(5).setCellValue("Nubank");
+
+            // Empty row in the middle of the data
+            sheet.createRow(2);
+
+            Row second = sheet.createRow(3);
+            second.createCell(0).setCellValue("Salário");
+            second.createCell(1).setCellValue("2025-02-05");
+            second.createCell(2).setCellValue("5000");
+            second.createCell(3).setCellValue("ENTRADA");
+            second.createCell(6).setCellValue("Nubank");
+
+            workbook.write(out);
+
+            ImportDataDTO result = service.importData(new ByteArrayInputStream(out.toByteArray()));
+
+            Assertions.assertTrue(result.getMonthlyPlannings().isEmpty(), "Plannings should be empty");
+            Assertions.assertEquals(2, result.getTransactions().size());
+
+            Transaction expense = result.getTransactions().get(0);
+            Assertions.assertEquals("Mercado", expense.getName());
+            Assertions.assertEquals(LocalDate.of(2025, 2, 10), expense.getCreationDate());
+            Assertions.assertEquals(new BigDecimal("250.5"), expense.getAmount());
+            Assertions.assertEquals(TransactionType.SAIDA, expense.getTransactionType());
+            Assertions.assertEquals("Alimentação", expense.getCategory().getName());
+            Assertions.assertEquals("Nubank", expense.getOutAccount().getName());
+            Assertions.assertNull(expense.getInAccount());
+
+            Transaction income = result.getTransactions().get(1);
+            Assertions.assertEquals(LocalDate.of(2025, 2, 5), income.getCreationDate());
+            Assertions.assertEquals(new BigDecimal("5000"), income.getAmount());
+            Assertions.assertNull(income.getCategory());
+            Assertions.assertEquals("Nubank", income.getInAccount().getName());
+        }
+    }
 }
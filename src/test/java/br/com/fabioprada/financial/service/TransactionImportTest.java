@@ -0,0 +1,183 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.dto.TransactionDTO;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.MonthlyPlanning;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.MonthlyPlanningRepository;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.repository.UserRepository;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Imports a workbook through the same chunk path as import jobs. Needs the
+ * local PostgreSQL database, so it only runs with {@code -Ddb-tests=true}.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "db-tests", matches = "true")
+public class TransactionImportTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ExcelService excelService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionEntryRepository transactionEntryRepository;
+
+    @Autowired
+    private MonthlyPlanningRepository monthlyPlanningRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testImportingSameWorkbookTwiceAddsNothing(@TempDir Path directory) throws IOException {
+        User user = createUser();
+        Path file = writeWorkbook(directory.resolve("import.xlsx"));
+
+        Assertions.assertEquals(0, importFile(user, file));
+        int transactions = transactionRepository.findAllByUserId(user.getId()).size();
+        int plannings = monthlyPlanningRepository.findAllByUserId(user.getId()).size();
+        Assertions.assertEquals(2, transactions);
+        Assertions.assertEquals(2, plannings);
+
+        Assertions.assertEquals(4, importFile(user, file));
+        Assertions.assertEquals(transactions, transactionRepository.findAllByUserId(user.getId()).size());
+        Assertions.assertEquals(plannings, monthlyPlanningRepository.findAllByUserId(user.getId()).size());
+    }
+
+    @Test
+    void testReimportingExportedPlanAddsNothing(@TempDir Path directory) throws IOException {
+        User user = createUser();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        Category category = new Category();
+        category.setName("Eletrônicos");
+        category.setUser(user);
+        Account account = new Account();
+        account.setName("Cartão");
+        account.setUser(user);
+        account.setInitialBalance(BigDecimal.ZERO);
+        account.setCurrentBalance(BigDecimal.ZERO);
+
+        Transaction purchase = new Transaction();
+        purchase.setName("Notebook");
+        purchase.setAmount(new BigDecimal("100.00"));
+        purchase.setCreationDate(LocalDate.of(2025, 1, 10));
+        purchase.setTransactionType(TransactionType.SAIDA);
+        purchase.setCategory(categoryRepository.save(category));
+        purchase.setOutAccount(accountRepository.save(account));
+        purchase.setTotalInstallments(3);
+        transactionService.save(purchase);
+
+        Path file = directory.resolve("export.xlsx");
+        try (OutputStream out = Files.newOutputStream(file);
+                Stream<TransactionDTO> rows = transactionEntryRepository.streamByUserIdAndCreationDateRange(
+                        user.getId(), LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1))) {
+            excelService.exportToExcel(rows, List.of(), out, row -> { });
+        }
+
+        // The three installments are expanded from the plan, none is stored in transacoes
+        Assertions.assertEquals(3, importFile(user, file));
+        Assertions.assertTrue(transactionRepository.findAllByUserId(user.getId()).isEmpty());
+        Assertions.assertEquals(3, transactionEntryRepository.findByUserIdAndCreationDateRange(user.getId(),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1)).size());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setEmail("import-" + UUID.randomUUID() + "@example.com");
+        user.setName("Import");
+        user.setPassword("unused");
+        return userRepository.save(user);
+    }
+
+    // Returns how many rows were skipped as already present
+    private long importFile(User user, Path file) {
+        List<Transaction> transactions = new ArrayList<>();
+        List<MonthlyPlanning> plannings = new ArrayList<>();
+        excelService.importData(file, transactions::add, plannings::add);
+
+        ImportNameResolver resolver = new ImportNameResolver(user, categoryRepository, accountRepository);
+        ImportDeduplicator deduplicator = new ImportDeduplicator(user.getId(), transactionRepository,
+                transactionEntryRepository, monthlyPlanningRepository);
+        transactionService.importChunk(user, resolver, deduplicator, transactions, plannings);
+        return deduplicator.getSkipped();
+    }
+
+    private Path writeWorkbook(Path file) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet transactions = workbook.createSheet(ExcelService.TRANSACTIONS_SHEET);
+            addRow(transactions, 0, (Object[]) ExcelService.TRANSACTION_HEADERS);
+            addRow(transactions, 1, "Mercado", "2025-03-05", 250.0, "SAIDA", "Alimentação", "Conta Corrente", null);
+            addRow(transactions, 2, "Salário", "2025-03-01", 5000.0, "ENTRADA", "Salário", null, "Conta Corrente");
+
+            Sheet plannings = workbook.createSheet(ExcelService.PLANNING_SHEET);
+            addRow(plannings, 0, (Object[]) ExcelService.PLANNING_HEADERS);
+            addRow(plannings, 1, 3, 2025, "Alimentação", 1500.0);
+            addRow(plannings, 2, 4, 2025, "Alimentação", 1500.0);
+
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    private void addRow(Sheet sheet, int index, Object... values) {
+        Row row = sheet.createRow(index);
+        for (int col = 0; col < values.length; col++) {
+            if (values[col] instanceof Number number) {
+                row.createCell(col).setCellValue(number.doubleValue());
+            } else if (values[col] != null) {
+                row.createCell(col).setCellValue(values[col].toString());
+            }
+        }
+    }
+}
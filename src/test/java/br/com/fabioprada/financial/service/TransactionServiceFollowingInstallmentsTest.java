@@ -0,0 +1,347 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.dto.MonthSummaryDTO;
+import br.com.fabioprada.financial.dto.MonthlyTypeTotal;
+import br.com.fabioprada.financial.exception.BadRequestException;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.InstallmentPlan;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.InstallmentPlanRepository;
+import br.com.fabioprada.financial.repository.MonthlyAggregateRepository;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Edits and deletes an installment together with the ones after it through
+ * {@link TransactionService}: splitting the plan, truncating it, dropping it,
+ * and rejecting invalid values or another user's category and account. Each
+ * step checks the plan rows, the account balance and the monthly spent
+ * totals. Needs the local PostgreSQL database, so it only runs with
+ * {@code -Ddb-tests=true}.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "db-tests", matches = "true")
+public class TransactionServiceFollowingInstallmentsTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private InstallmentPlanRepository installmentPlanRepository;
+
+    @Autowired
+    private MonthlyAggregateRepository monthlyAggregateRepository;
+
+    @Autowired
+    private TransactionEntryRepository transactionEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Category category;
+    private Account account;
+    // 100.00 in four installments of 25.00, January to April 2025
+    private InstallmentPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        category = createCategory(user);
+        account = createAccount(user);
+
+        Transaction purchase = details("Notebook", "100.00");
+        purchase.setCreationDate(LocalDate.of(2025, 1, 10));
+        purchase.setTotalInstallments(4);
+        plan = reload(transactionService.save(purchase).getInstallmentPlan().getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testUpdatingFromMiddleSplitsPlan() {
+        Assertions.assertEquals(2, transactionService.updateFollowingInstallments(installment(3),
+                details("Notebook novo", "40.00")));
+
+        List<Long> planIds = planIds();
+        Assertions.assertEquals(2, planIds.size());
+        InstallmentPlan earlier = reload(plan.getId());
+        Assertions.assertEquals(2, earlier.getInstallmentCount());
+        Assertions.assertEquals(0, new BigDecimal("50.00").compareTo(earlier.getTotalAmount()));
+        Assertions.assertEquals("Notebook", earlier.getName());
+        InstallmentPlan following = reload(planIds.get(1));
+        Assertions.assertEquals(3, following.getFirstNumber());
+        Assertions.assertEquals(2, following.getInstallmentCount());
+        Assertions.assertEquals(4, following.getTotalInstallments());
+        Assertions.assertEquals(0, new BigDecimal("80.00").compareTo(following.getTotalAmount()));
+        Assertions.assertEquals("Notebook novo", following.getName());
+
+        assertBalance("-130.00");
+        assertSpent("25.00", "25.00", "40.00", "40.00");
+    }
+
+    @Test
+    void testUpdatingFromFirstKeepsOnePlan() {
+        Assertions.assertEquals(4, transactionService.updateFollowingInstallments(installment(1),
+                details("Notebook novo", "30.00")));
+
+        Assertions.assertEquals(List.of(plan.getId()), planIds());
+        InstallmentPlan updated = reload(plan.getId());
+        Assertions.assertEquals(4, updated.getInstallmentCount());
+        Assertions.assertEquals(0, new BigDecimal("120.00").compareTo(updated.getTotalAmount()));
+
+        assertBalance("-120.00");
+        assertSpent("30.00", "30.00", "30.00", "30.00");
+    }
+
+    @Test
+    void testUpdatingMovesStoredInstallmentToFollowingPlan() {
+        Long storedId = detach(4, "10.00");
+        assertBalance("-85.00");
+
+        Assertions.assertEquals(2, transactionService.updateFollowingInstallments(installment(3),
+                details("Notebook novo", "40.00")));
+
+        List<Long> planIds = planIds();
+        Assertions.assertEquals(2, planIds.size());
+        Transaction stored = transactionRepository.findByIdAndUserId(storedId, user.getId()).orElseThrow();
+        Assertions.assertEquals(planIds.get(1), stored.getInstallmentPlan().getId());
+        Assertions.assertEquals(0, new BigDecimal("40.00").compareTo(stored.getAmount()));
+        Assertions.assertEquals("Notebook novo", stored.getName());
+
+        assertBalance("-130.00");
+        assertSpent("25.00", "25.00", "40.00", "40.00");
+    }
+
+    @Test
+    void testDeletingFromMiddleTruncatesPlan() {
+        Assertions.assertEquals(2, transactionService.deleteFollowingInstallments(installment(3)));
+
+        Assertions.assertEquals(List.of(plan.getId()), planIds());
+        InstallmentPlan truncated = reload(plan.getId());
+        Assertions.assertEquals(2, truncated.getInstallmentCount());
+        Assertions.assertEquals(2, truncated.getTotalInstallments());
+        Assertions.assertEquals(0, new BigDecimal("50.00").compareTo(truncated.getTotalAmount()));
+
+        assertBalance("-50.00");
+        assertSpent("25.00", "25.00", "0", "0");
+    }
+
+    @Test
+    void testDeletingFromMiddleRemovesStoredInstallments() {
+        Long storedId = detach(2, "60.00");
+        Transaction stored = transactionService.findByIdAndUserId(storedId).orElseThrow();
+
+        // The stored installment 2 and the expanded 3 and 4
+        Assertions.assertEquals(3, transactionService.deleteFollowingInstallments(stored));
+
+        Assertions.assertTrue(transactionRepository.findAllByUserId(user.getId()).isEmpty());
+        InstallmentPlan truncated = reload(plan.getId());
+        Assertions.assertEquals(1, truncated.getInstallmentCount());
+        Assertions.assertEquals(1, truncated.getTotalInstallments());
+        Assertions.assertTrue(truncated.getDetachedNumbers().isEmpty());
+
+        assertBalance("-25.00");
+        assertSpent("25.00", "0", "0", "0");
+    }
+
+    @Test
+    void testDeletingFromFirstDropsPlan() {
+        Assertions.assertEquals(4, transactionService.deleteFollowingInstallments(installment(1)));
+
+        Assertions.assertTrue(planIds().isEmpty());
+        assertBalance("0");
+        assertSpent("0", "0", "0", "0");
+    }
+
+    @Test
+    void testInvalidDetailsAreRejected() {
+        Transaction blankName = details(" ", "40.00");
+        Transaction noAmount = details("Notebook novo", "40.00");
+        noAmount.setAmount(null);
+        Transaction noType = details("Notebook novo", "40.00");
+        noType.setTransactionType(null);
+
+        for (Transaction details : List.of(blankName, noAmount, noType)) {
+            Assertions.assertThrows(BadRequestException.class,
+                    () -> transactionService.updateFollowingInstallments(installment(2), details));
+        }
+
+        assertUnchanged();
+    }
+
+    @Test
+    void testAnotherUsersCategoryAndAccountAreRejected() {
+        User other = createUser();
+        Transaction foreignCategory = details("Notebook novo", "40.00");
+        foreignCategory.setCategory(createCategory(other));
+        Transaction foreignOutAccount = details("Notebook novo", "40.00");
+        foreignOutAccount.setOutAccount(createAccount(other));
+        Transaction foreignInAccount = details("Notebook novo", "40.00");
+        foreignInAccount.setInAccount(createAccount(other));
+
+        for (Transaction details : List.of(foreignCategory, foreignOutAccount, foreignInAccount)) {
+            Assertions.assertThrows(BadRequestException.class,
+                    () -> transactionService.updateFollowingInstallments(installment(2), details));
+        }
+
+        assertUnchanged();
+    }
+
+    @Test
+    void testTransactionOutsidePlanIsRejected() {
+        Transaction single = details("Mercado", "10.00");
+        single.setCreationDate(LocalDate.of(2025, 1, 15));
+        Transaction saved = transactionService.save(single);
+
+        Assertions.assertThrows(BadRequestException.class,
+                () -> transactionService.updateFollowingInstallments(saved, details("Mercado", "20.00")));
+        Assertions.assertThrows(BadRequestException.class,
+                () -> transactionService.deleteFollowingInstallments(saved));
+
+        assertBalance("-110.00");
+        assertSpent("35.00", "25.00", "25.00", "25.00");
+    }
+
+    private User createUser() {
+        User created = new User();
+        created.setEmail("following-" + UUID.randomUUID() + "@example.com");
+        created.setName("Following");
+        created.setPassword("unused");
+        return userRepository.save(created);
+    }
+
+    private Category createCategory(User owner) {
+        Category created = new Category();
+        created.setName("Eletrônicos");
+        created.setUser(owner);
+        return categoryRepository.save(created);
+    }
+
+    private Account createAccount(User owner) {
+        Account created = new Account();
+        created.setName("Cartão");
+        created.setUser(owner);
+        created.setInitialBalance(BigDecimal.ZERO);
+        created.setCurrentBalance(BigDecimal.ZERO);
+        return accountRepository.save(created);
+    }
+
+    private Transaction details(String name, String amount) {
+        Transaction details = new Transaction();
+        details.setName(name);
+        details.setAmount(new BigDecimal(amount));
+        details.setTransactionType(TransactionType.SAIDA);
+        details.setCategory(category);
+        details.setOutAccount(account);
+        return details;
+    }
+
+    // As the controller passes it: looked up by its virtual id
+    private Transaction installment(int number) {
+        return transactionService.findByIdAndUserId(plan.virtualId(number)).orElseThrow();
+    }
+
+    // Edits one expanded installment on its own, storing it as a row
+    private Long detach(int number, String amount) {
+        Transaction edited = details("Notebook", amount);
+        edited.setId(plan.virtualId(number));
+        edited.setCreationDate(plan.dueDate(number));
+        return transactionService.save(edited).getId();
+    }
+
+    private InstallmentPlan reload(Long planId) {
+        entityManager.flush();
+        entityManager.clear();
+        return installmentPlanRepository.findById(planId).orElseThrow();
+    }
+
+    private List<Long> planIds() {
+        entityManager.flush();
+        return jdbcTemplate.queryForList("SELECT id FROM installment_plans WHERE user_id = ? ORDER BY id",
+                Long.class, user.getId());
+    }
+
+    private void assertUnchanged() {
+        Assertions.assertEquals(List.of(plan.getId()), planIds());
+        InstallmentPlan unchanged = reload(plan.getId());
+        Assertions.assertEquals(4, unchanged.getInstallmentCount());
+        Assertions.assertEquals("Notebook", unchanged.getName());
+        assertBalance("-100.00");
+        assertSpent("25.00", "25.00", "25.00", "25.00");
+    }
+
+    private void assertBalance(String expected) {
+        entityManager.flush();
+        entityManager.clear();
+        BigDecimal balance = accountRepository.findById(account.getId()).orElseThrow().getCurrentBalance();
+        Assertions.assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance: " + balance);
+    }
+
+    /**
+     * Spent totals of January to April 2025, from the same two queries as the
+     * dashboard. Its cache is only evicted after commit, which these rolled
+     * back tests never reach, so it is bypassed.
+     */
+    private void assertSpent(String... expected) {
+        YearMonth from = YearMonth.of(2025, 1);
+        YearMonth to = from.plusMonths(expected.length - 1L);
+        List<MonthlyTypeTotal> totals = new ArrayList<>(monthlyAggregateRepository.sumByMonthAndType(user.getId(),
+                from.getYear() * 100 + from.getMonthValue(), to.getYear() * 100 + to.getMonthValue()));
+        totals.addAll(transactionEntryRepository.sumInstallmentsByMonthAndType(user.getId(), from.atDay(1),
+                to.plusMonths(1).atDay(1)));
+        Map<YearMonth, MonthSummaryDTO> summaries = DashboardService.summarize(from, to, totals, List.of());
+        for (int i = 0; i < expected.length; i++) {
+            YearMonth month = from.plusMonths(i);
+            BigDecimal spent = summaries.get(month).getTotalSpent();
+            Assertions.assertEquals(0, new BigDecimal(expected[i]).compareTo(spent), month + ": " + spent);
+        }
+    }
+}
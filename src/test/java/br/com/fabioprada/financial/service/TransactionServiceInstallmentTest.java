@@ -0,0 +1,238 @@
+package br.com.fabioprada.financial.service;
+
+import br.com.fabioprada.financial.dto.MonthSummaryDTO;
+import br.com.fabioprada.financial.dto.MonthlyTypeTotal;
+import br.com.fabioprada.financial.exception.BadRequestException;
+import br.com.fabioprada.financial.model.Account;
+import br.com.fabioprada.financial.model.Category;
+import br.com.fabioprada.financial.model.InstallmentPlan;
+import br.com.fabioprada.financial.model.Transaction;
+import br.com.fabioprada.financial.model.TransactionType;
+import br.com.fabioprada.financial.model.User;
+import br.com.fabioprada.financial.repository.AccountRepository;
+import br.com.fabioprada.financial.repository.CategoryRepository;
+import br.com.fabioprada.financial.repository.InstallmentPlanRepository;
+import br.com.fabioprada.financial.repository.MonthlyAggregateRepository;
+import br.com.fabioprada.financial.repository.TransactionEntryRepository;
+import br.com.fabioprada.financial.repository.TransactionRepository;
+import br.com.fabioprada.financial.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores a purchase as a plan and edits and deletes its installments through
+ * {@link TransactionService}, checking the plan row, the account balance and
+ * the monthly spent totals after each step. Needs the local PostgreSQL database, so
+ * it only runs with {@code -Ddb-tests=true}.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "db-tests", matches = "true")
+public class TransactionServiceInstallmentTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 10);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private InstallmentPlanRepository installmentPlanRepository;
+
+    @Autowired
+    private MonthlyAggregateRepository monthlyAggregateRepository;
+
+    @Autowired
+    private TransactionEntryRepository transactionEntryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Category category;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("installments-" + UUID.randomUUID() + "@example.com");
+        user.setName("Installments");
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        category = new Category();
+        category.setName("Eletrônicos");
+        category.setUser(user);
+        category = categoryRepository.save(category);
+        account = new Account();
+        account.setName("Cartão");
+        account.setUser(user);
+        account.setInitialBalance(BigDecimal.ZERO);
+        account.setCurrentBalance(BigDecimal.ZERO);
+        account = accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testPurchaseIsStoredAsOnePlan() {
+        Transaction first = transactionService.save(purchase("100.00", 3));
+
+        Assertions.assertTrue(InstallmentPlan.isVirtualId(first.getId()));
+        Assertions.assertEquals(1, first.getInstallmentNumber());
+        InstallmentPlan plan = plan(first);
+        Assertions.assertEquals(3, plan.getInstallmentCount());
+        Assertions.assertEquals(0, new BigDecimal("100.00").compareTo(plan.getTotalAmount()));
+        Assertions.assertTrue(transactionRepository.findAllByUserId(user.getId()).isEmpty());
+
+        // The whole purchase leaves the account once
+        assertBalance("-100.00");
+        assertSpent("33.33", "33.33", "33.34", "0");
+    }
+
+    @Test
+    void testEditingInstallmentDetachesIt() {
+        InstallmentPlan plan = plan(transactionService.save(purchase("100.00", 3)));
+
+        Transaction edited = purchase("50.00", null);
+        edited.setId(plan.virtualId(2));
+        edited.setCreationDate(plan.dueDate(2));
+        Transaction saved = transactionService.save(edited);
+
+        Assertions.assertFalse(InstallmentPlan.isVirtualId(saved.getId()));
+        Assertions.assertEquals(2, saved.getInstallmentNumber());
+        Assertions.assertEquals(plan.getId(), saved.getInstallmentPlan().getId());
+        Assertions.assertTrue(plan(saved).getDetachedNumbers().contains(2));
+        Assertions.assertEquals(1, transactionRepository.findAllByUserId(user.getId()).size());
+
+        assertBalance("-116.67");
+        assertSpent("33.33", "50.00", "33.34", "0");
+    }
+
+    @Test
+    void testDeletingStoredAndExpandedInstallmentsTogether() {
+        InstallmentPlan plan = plan(transactionService.save(purchase("100.00", 3)));
+        Transaction edited = purchase("50.00", null);
+        edited.setId(plan.virtualId(2));
+        edited.setCreationDate(plan.dueDate(2));
+        Long storedId = transactionService.save(edited).getId();
+
+        Assertions.assertEquals(2, transactionService.deleteMultiple(List.of(storedId, plan.virtualId(1))));
+
+        Assertions.assertTrue(transactionRepository.findAllByUserId(user.getId()).isEmpty());
+        Assertions.assertEquals(1, plan(plan.getId()).expandedCountFrom(1));
+        assertBalance("-33.34");
+        assertSpent("0", "0", "33.34", "0");
+
+        // Deleting the last one left drops the plan
+        Assertions.assertEquals(1, transactionService.deleteMultiple(List.of(plan.virtualId(3))));
+
+        entityManager.flush();
+        Assertions.assertTrue(installmentPlanRepository.findById(plan.getId()).isEmpty());
+        assertBalance("0");
+        assertSpent("0", "0", "0", "0");
+    }
+
+    @Test
+    void testDeletingExpandedInstallmentById() {
+        InstallmentPlan plan = plan(transactionService.save(purchase("100.00", 3)));
+
+        transactionService.deleteById(plan.virtualId(3));
+
+        InstallmentPlan trimmed = plan(plan.getId());
+        Assertions.assertEquals(2, trimmed.getInstallmentCount());
+        Assertions.assertEquals(0, new BigDecimal("66.66").compareTo(trimmed.getTotalAmount()));
+        assertBalance("-66.66");
+        assertSpent("33.33", "33.33", "0", "0");
+    }
+
+    @Test
+    void testTooManyInstallmentsIsRejected() {
+        Assertions.assertThrows(BadRequestException.class,
+                () -> transactionService.save(purchase("100.00", InstallmentPlan.MAX_INSTALLMENTS + 1)));
+        assertBalance("0");
+    }
+
+    private Transaction purchase(String amount, Integer installments) {
+        Transaction transaction = new Transaction();
+        transaction.setName("Notebook");
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCreationDate(START);
+        transaction.setTransactionType(TransactionType.SAIDA);
+        transaction.setCategory(category);
+        transaction.setOutAccount(account);
+        transaction.setTotalInstallments(installments);
+        return transaction;
+    }
+
+    // Read again after the bulk updates the service runs
+    private InstallmentPlan plan(Transaction installment) {
+        return plan(installment.getInstallmentPlan().getId());
+    }
+
+    private InstallmentPlan plan(Long planId) {
+        entityManager.flush();
+        entityManager.clear();
+        return installmentPlanRepository.findById(planId).orElseThrow();
+    }
+
+    private void assertBalance(String expected) {
+        entityManager.flush();
+        entityManager.clear();
+        BigDecimal balance = accountRepository.findById(account.getId()).orElseThrow().getCurrentBalance();
+        Assertions.assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance: " + balance);
+    }
+
+    /**
+     * Spent totals of January to April 2025, from the same two queries as the
+     * dashboard. Its cache is only evicted after commit, which these rolled
+     * back tests never reach, so it is bypassed.
+     */
+    private void assertSpent(String... expected) {
+        YearMonth from = YearMonth.of(2025, 1);
+        YearMonth to = from.plusMonths(expected.length - 1L);
+        List<MonthlyTypeTotal> totals = new ArrayList<>(monthlyAggregateRepository.sumByMonthAndType(user.getId(),
+                from.getYear() * 100 + from.getMonthValue(), to.getYear() * 100 + to.getMonthValue()));
+        totals.addAll(transactionEntryRepository.sumInstallmentsByMonthAndType(user.getId(), from.atDay(1),
+                to.plusMonths(1).atDay(1)));
+        Map<YearMonth, MonthSummaryDTO> summaries = DashboardService.summarize(from, to, totals, List.of());
+        for (int i = 0; i < expected.length; i++) {
+            YearMonth month = from.plusMonths(i);
+            BigDecimal spent = summaries.get(month).getTotalSpent();
+            Assertions.assertEquals(0, new BigDecimal(expected[i]).compareTo(spent), month + ": " + spent);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.fabioprada.financial.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserScopedCacheTest {
+
+    @Test
+    void testEvictReloadsOnlyThatUsersEntries() {
+        UserScopedCache cache = new UserScopedCache(new ConcurrentMapCacheManager(UserScopedCache.ACCOUNTS));
+        AtomicInteger loads = new AtomicInteger();
+
+        Assertions.assertEquals(1, cache.get(UserScopedCache.ACCOUNTS, 1L, "all", loads::incrementAndGet));
+        Assertions.assertEquals(2, cache.get(UserScopedCache.ACCOUNTS, 2L, "all", loads::incrementAndGet));
+        Assertions.assertEquals(1, cache.get(UserScopedCache.ACCOUNTS, 1L, "all", loads::incrementAndGet));
+
+        cache.evict(1L, UserScopedCache.ACCOUNTS);
+
+        Assertions.assertEquals(3, cache.get(UserScopedCache.ACCOUNTS, 1L, "all", loads::incrementAndGet));
+        Assertions.assertEquals(2, cache.get(UserScopedCache.ACCOUNTS, 2L, "all", loads::incrementAndGet));
+        cache.evict(1L, UserScopedCache.ACCOUNTS);
+        cache.evict(1L, UserScopedCache.ACCOUNTS);
+        Assertions.assertEquals(4, cache.get(UserScopedCache.ACCOUNTS, 1L, "all", loads::incrementAndGet));
+    }
+}